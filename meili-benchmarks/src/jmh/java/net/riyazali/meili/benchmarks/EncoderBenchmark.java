@@ -0,0 +1,71 @@
+package net.riyazali.meili.benchmarks;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.Encoder;
+import net.riyazali.meili.SearchPage;
+import okio.Buffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
+
+// encoding and decoding of documents and search responses, without any i/o
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EncoderBenchmark {
+
+  @Param({"gson", "jackson"}) String codec;
+
+  // number of documents / hits
+  @Param({"1", "100", "1000"}) int size;
+
+  private Encoder encoder;
+  private List<Movie> movies;
+  private byte[] documents;
+  private byte[] response;
+
+  private final Type documentsType = getParameterized(null, List.class, Movie.class);
+  private final Type responseType = getParameterized(null, SearchPage.Response.class, Movie.class);
+
+  @Setup public void setup() {
+    encoder = Fixtures.encoder(codec);
+    movies = Fixtures.movies(size);
+    documents = Fixtures.documents(size);
+    response = Fixtures.searchResponse(size);
+  }
+
+  @Benchmark public Buffer encode() throws IOException {
+    Buffer buffer = new Buffer();
+    buffer.writeAll(encoder.encode(movies));
+    return buffer;
+  }
+
+  @Benchmark public Buffer encodeToSink() throws IOException {
+    Buffer buffer = new Buffer();
+    encoder.encode(movies, buffer);
+    return buffer;
+  }
+
+  @Benchmark public List<Movie> decodeDocuments() {
+    return encoder.decode(new Buffer().write(documents), documentsType);
+  }
+
+  @Benchmark public SearchPage.Response<Movie> decodeSearchResponse() {
+    return encoder.decode(new Buffer().write(response), responseType);
+  }
+
+  @Benchmark public void decodeEachHit(Blackhole blackhole) {
+    encoder.<Movie>decodeEach(new Buffer().write(response), "hits", Movie.class, blackhole::consume);
+  }
+}
@@ -0,0 +1,85 @@
+package net.riyazali.meili.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.HttpRemote;
+import net.riyazali.meili.Index;
+import net.riyazali.meili.Meili;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.SearchConfig;
+import net.riyazali.meili.SearchPage;
+import net.riyazali.meili.Update;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+// index operations over http against an in-process server serving canned meilisearch responses
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EndToEndBenchmark {
+
+  @Param({"gson", "jackson"}) String codec;
+
+  // number of documents / hits
+  @Param({"10", "100", "1000"}) int size;
+
+  private MockWebServer server;
+  private Index<Movie> index;
+  private SearchConfig config;
+  private Movie[] movies;
+
+  @Setup public void setup() throws Exception {
+    byte[] search = Fixtures.searchResponse(size);
+
+    server = new MockWebServer();
+    server.setBodyLimit(0); // don't hold on to the request bodies
+    server.setDispatcher(new Dispatcher() {
+      @Override public @NotNull MockResponse dispatch(@NotNull RecordedRequest request) {
+        return "GET".equals(request.getMethod()) ?
+            new MockResponse().setResponseCode(200).setBody(new Buffer().write(search)) :
+            new MockResponse().setResponseCode(202).setBody(new Buffer().write(Fixtures.UPDATE));
+      }
+    });
+    server.start();
+
+    Remote remote = HttpRemote.create(server.url("/").toString());
+    index = new Meili(remote, Fixtures.encoder(codec)).index(Movie.class, false);
+    index.refreshOnWrite(false);
+
+    config = SearchConfig.builder().query("captain marvel").limit(size).build();
+    movies = Fixtures.movies(size).toArray(new Movie[0]);
+  }
+
+  // the server records every request it serves; drop them so they don't pile up
+  @TearDown(Level.Iteration) public void drain() throws InterruptedException {
+    while (server.takeRequest(0, TimeUnit.NANOSECONDS) != null) {
+      // discard
+    }
+  }
+
+  @TearDown public void teardown() throws IOException {
+    server.shutdown();
+  }
+
+  @Benchmark public SearchPage<Movie> search() throws Exception {
+    return index.search(config);
+  }
+
+  @Benchmark public Update insert() throws Exception {
+    return index.insert(movies);
+  }
+}
@@ -0,0 +1,75 @@
+package net.riyazali.meili.benchmarks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import net.riyazali.meili.Encoder;
+import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.JacksonEncoder;
+import okio.BufferedSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+
+// canned documents and responses used by the benchmarks
+final class Fixtures {
+  private Fixtures() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  // response to any write operation
+  static final byte[] UPDATE =
+      "{\"updateId\":1,\"status\":\"ENQUEUED\"}".getBytes(StandardCharsets.UTF_8);
+
+  // returns the encoder with the given name
+  static @NotNull Encoder encoder(@NotNull String name) {
+    switch (name) {
+      case "gson":
+        return GsonEncoder.create();
+      case "jackson":
+        return JacksonEncoder.create();
+      default:
+        throw new IllegalArgumentException("unknown encoder: " + name);
+    }
+  }
+
+  // returns a reproducible list of the given number of documents
+  static @NotNull List<Movie> movies(int count) {
+    Random random = new Random(count);
+    List<Movie> movies = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      movies.add(Movie.random(i, random));
+    }
+    return movies;
+  }
+
+  // returns the encoded list of the given number of documents
+  static @NotNull byte[] documents(int count) {
+    return encode(movies(count));
+  }
+
+  // returns an encoded search response with the given number of hits
+  static @NotNull byte[] searchResponse(int hits) {
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("hits", movies(hits));
+    response.put("offset", 0);
+    response.put("limit", hits);
+    response.put("nbHits", hits * 10);
+    response.put("exhaustiveNbHits", false);
+    response.put("processingTimeMs", 1);
+    response.put("query", "captain marvel");
+    return encode(response);
+  }
+
+  private static @NotNull byte[] encode(@NotNull Object object) {
+    try (BufferedSource source = Okio.buffer(GsonEncoder.create().encode(object))) {
+      return source.readByteArray();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
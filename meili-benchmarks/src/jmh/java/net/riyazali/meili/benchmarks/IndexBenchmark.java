@@ -0,0 +1,64 @@
+package net.riyazali.meili.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.BulkConfig;
+import net.riyazali.meili.BulkIndexer;
+import net.riyazali.meili.Index;
+import net.riyazali.meili.Meili;
+import net.riyazali.meili.SearchConfig;
+import net.riyazali.meili.SearchPage;
+import net.riyazali.meili.Update;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// index operations against an in-memory remote; measures everything but the network
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class IndexBenchmark {
+
+  @Param({"gson", "jackson"}) String codec;
+
+  // number of documents / hits
+  @Param({"10", "100", "1000"}) int size;
+
+  private Index<Movie> index;
+  private SearchConfig config;
+  private Movie[] movies;
+
+  @Setup public void setup() throws Exception {
+    StubRemote remote = new StubRemote(Fixtures.searchResponse(size), Fixtures.UPDATE);
+    index = new Meili(remote, Fixtures.encoder(codec)).index(Movie.class, false);
+    index.refreshOnWrite(false);
+
+    config = SearchConfig.builder().query("captain marvel").limit(size).build();
+    movies = Fixtures.movies(size).toArray(new Movie[0]);
+  }
+
+  @Benchmark public SearchPage<Movie> search() throws Exception {
+    return index.search(config);
+  }
+
+  @Benchmark public Update insert() throws Exception {
+    return index.insert(movies);
+  }
+
+  @Benchmark public BulkIndexer.Stats bulkInsert() throws Exception {
+    BulkConfig bulk = BulkConfig.builder().maxDocuments(100).executor(Runnable::run).build();
+    BulkIndexer<Movie> indexer = index.bulkIndexer(bulk);
+    try {
+      for (Movie movie : movies) {
+        indexer.add(movie);
+      }
+    } finally {
+      indexer.close();
+    }
+    return indexer.stats();
+  }
+}
@@ -0,0 +1,51 @@
+package net.riyazali.meili.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import net.riyazali.meili.Document;
+import org.jetbrains.annotations.NotNull;
+
+// document class used by the benchmarks
+// shaped like a typical movie document with a mix of short and long fields
+@Document(index = "movies", primaryKey = "id")
+public class Movie {
+  private static final String[] WORDS = {
+      "captain", "marvel", "shazam", "galactic", "war", "hero", "universe", "earth", "alien",
+      "races", "powerful", "magic", "word", "adult", "superhero", "story", "follows", "becomes"
+  };
+
+  private String id;
+  private String title;
+  private String overview;
+  private List<String> genres;
+  private long releaseDate;
+  private double rating;
+
+  private Movie() {
+    // used by encoders
+  }
+
+  // returns a movie with random (but reproducible) contents
+  static @NotNull Movie random(int id, @NotNull Random random) {
+    Movie movie = new Movie();
+    movie.id = Integer.toString(id);
+    movie.title = words(random, 3);
+    movie.overview = words(random, 40);
+    movie.genres = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      movie.genres.add(WORDS[random.nextInt(WORDS.length)]);
+    }
+    movie.releaseDate = 1_500_000_000L + random.nextInt(100_000_000);
+    movie.rating = random.nextInt(100) / 10.0;
+    return movie;
+  }
+
+  private static @NotNull String words(@NotNull Random random, int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append(i > 0 ? " " : "").append(WORDS[random.nextInt(WORDS.length)]);
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,64 @@
+package net.riyazali.meili.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.HttpRemote;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.SearchConfig;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// construction of search requests; the okhttp remote is short-circuited by an interceptor so that
+// only request building (url, query parameters and okhttp's call machinery) is measured
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestBenchmark {
+
+  private SearchConfig config;
+  private Remote remote;
+
+  @Setup public void setup() {
+    config = SearchConfig.builder()
+        .query("captain marvel")
+        .limit(20).offset(40)
+        .crop("overview").cropLength(100)
+        .highlight("title").highlight("overview")
+        .filters("rating > 5")
+        .build();
+
+    OkHttpClient client = new OkHttpClient.Builder()
+        .addInterceptor(chain -> new okhttp3.Response.Builder()
+            .request(chain.request())
+            .protocol(Protocol.HTTP_1_1)
+            .code(200).message("OK")
+            .body(ResponseBody.create(new byte[0], MediaType.get("application/json")))
+            .build())
+        .build();
+    remote = HttpRemote.create("http://localhost:7700", "masterKey", client);
+  }
+
+  @Benchmark public Object searchConfigMap() {
+    return config.map();
+  }
+
+  @Benchmark public Request buildRequest() {
+    return Request.builder().path("/indexes/movies/search").query(config.map()).build();
+  }
+
+  @Benchmark public int httpRemoteShortCircuit() throws Exception {
+    Request request = Request.builder().path("/indexes/movies/search").query(config.map()).build();
+    try (Remote.Response response = remote.get(request)) {
+      return response.status();
+    }
+  }
+}
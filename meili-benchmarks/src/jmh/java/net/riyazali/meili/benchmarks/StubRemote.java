@@ -0,0 +1,54 @@
+package net.riyazali.meili.benchmarks;
+
+import java.io.IOException;
+import net.riyazali.meili.Remote;
+import okio.Buffer;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+// Remote that serves canned responses from memory
+// request bodies are written out (and discarded) so that encoding is accounted for
+final class StubRemote implements Remote {
+  private final byte[] read;
+  private final byte[] write;
+
+  StubRemote(@NotNull byte[] read, @NotNull byte[] write) {
+    this.read = read;
+    this.write = write;
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    if (request.body() != null) {
+      Buffer sink = new Buffer();
+      request.body().writeTo(sink);
+      sink.clear();
+    }
+
+    return "GET".equals(method) ?
+        new CannedResponse(200, read) : new CannedResponse(202, write);
+  }
+
+  private static final class CannedResponse extends Response {
+    private final int status;
+    private final Buffer body;
+
+    private CannedResponse(int status, @NotNull byte[] body) {
+      this.status = status;
+      this.body = new Buffer().write(body);
+    }
+
+    @Override public int status() {
+      return status;
+    }
+
+    @Override public @Nullable Source body() {
+      return body;
+    }
+
+    @Override public void close() {
+      body.clear();
+    }
+  }
+}
@@ -3,18 +3,27 @@ package net.riyazali.meili;
 import com.fatboyindustrial.gsonjavatime.ZonedDateTimeConverter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
 import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
 import java.time.ZonedDateTime;
+import java.util.function.Consumer;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
 import okio.Okio;
 import okio.Source;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * {@linkplain Encoder} implementation backed by Gson
@@ -37,11 +46,93 @@ public class GsonEncoder implements Encoder {
   }
 
   @Override public @NotNull <T> Source encode(@NotNull T object) {
-    return Okio.source(new ByteArrayInputStream(gson.toJson(object).getBytes()));
+    Buffer buffer = new Buffer();
+    try {
+      encode(object, buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e); // never thrown by an in-memory buffer
+    }
+    return buffer;
+  }
+
+  @Override public <T> void encode(@NotNull T object, @NotNull BufferedSink sink)
+      throws IOException {
+    // JsonWriter streams the encoded characters straight into the sink's segments
+    // we don't close the writer here as that would close the underlying sink too
+    JsonWriter writer = gson.newJsonWriter(
+        new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8));
+    gson.toJson(object, object.getClass(), writer);
+    writer.flush();
   }
 
   @Override public <T> @NotNull T decode(@NotNull Source json, @NotNull Type type) {
-    return gson.fromJson(new InputStreamReader(Okio.buffer(json).inputStream()), type);
+    return gson.fromJson(reader(json), type);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override public <T> @NotNull TypeDecoder<T> decoder(@NotNull Type type) {
+    // the adapter is looked up once, rather than on every call
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+    return json -> {
+      try {
+        JsonReader reader = gson.newJsonReader(reader(json));
+        reader.setLenient(true); // same as gson.fromJson(...) does
+        return adapter.read(reader);
+      } catch (IOException e) {
+        throw new JsonIOException(e);
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override public <T> @NotNull TypeEncoder<T> encoder(@NotNull Type type) {
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(type));
+    return (value, sink) -> {
+      JsonWriter writer = gson.newJsonWriter(
+          new OutputStreamWriter(sink.outputStream(), StandardCharsets.UTF_8));
+      writer.setLenient(true); // same as gson.toJson(...) does
+      adapter.write(writer, value);
+      writer.flush();
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override public <T> void decodeEach(@NotNull Source json, @Nullable String field,
+      @NotNull Type elementType, @NotNull Consumer<? super T> consumer) {
+    TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType));
+    try {
+      JsonReader reader = gson.newJsonReader(reader(json));
+      if (field != null) {
+        // skip over everything until we find the field we are looking for
+        boolean found = false;
+        reader.beginObject();
+        while (!found && reader.hasNext()) {
+          if (reader.nextName().equals(field)) {
+            found = true;
+          } else {
+            reader.skipValue();
+          }
+        }
+
+        if (!found || reader.peek() == JsonToken.NULL) {
+          return;
+        }
+      }
+
+      reader.beginArray();
+      while (reader.hasNext()) {
+        consumer.accept(adapter.read(reader));
+      }
+      reader.endArray();
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+  // returns a reader that decodes utf-8 text directly off the given source
+  private static @NotNull Reader reader(@NotNull Source json) {
+    return new Utf8SourceReader(json instanceof BufferedSource ?
+        (BufferedSource) json : Okio.buffer(json));
   }
 
   // API returned status codes are in lower case but standard enum definitions are usually uppercase
@@ -0,0 +1,70 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.io.Reader;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// Reader that decodes UTF-8 text directly off a BufferedSource
+//
+// Unlike an InputStreamReader it doesn't keep a byte / char buffer of it's own, instead it reads
+// whatever the source has already buffered. The only state held is a pending low surrogate of a
+// supplementary code point which didn't fit into the caller's array.
+final class Utf8SourceReader extends Reader {
+
+  private final BufferedSource source;
+  private int pending = -1;
+
+  Utf8SourceReader(@NotNull BufferedSource source) {
+    this.source = checkNotNull(source);
+  }
+
+  @Override public int read(@NotNull char[] cbuf, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+
+    int n = 0;
+    if (pending != -1) {
+      cbuf[off + n++] = (char) pending;
+      pending = -1;
+    } else if (source.exhausted()) { // blocks until at least a byte is buffered
+      return -1;
+    }
+
+    Buffer buffer = source.getBuffer();
+    while (n < len && buffer.size() > 0) {
+      byte b = buffer.getByte(0);
+      if ((b & 0x80) == 0) { // fast path for ascii
+        buffer.skip(1);
+        cbuf[off + n++] = (char) b;
+        continue;
+      }
+
+      int codePoint = source.readUtf8CodePoint();
+      if (Character.isBmpCodePoint(codePoint)) {
+        cbuf[off + n++] = (char) codePoint;
+      } else {
+        cbuf[off + n++] = Character.highSurrogate(codePoint);
+        if (n < len) {
+          cbuf[off + n++] = Character.lowSurrogate(codePoint);
+        } else {
+          pending = Character.lowSurrogate(codePoint);
+        }
+      }
+    }
+
+    return n;
+  }
+
+  @Override public boolean ready() throws IOException {
+    return pending != -1 || source.getBuffer().size() > 0;
+  }
+
+  @Override public void close() throws IOException {
+    source.close();
+  }
+}
@@ -2,7 +2,11 @@ package net.riyazali.meili.test;
 
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 import net.riyazali.meili.Encoder;
 import net.riyazali.meili.GsonEncoder;
@@ -14,6 +18,7 @@ import okio.Source;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 class GsonEncoderTest {
@@ -32,6 +37,14 @@ class GsonEncoderTest {
     assertEquals(new ByteString(ALPHA_JSON.getBytes()), b.readByteString());
   }
 
+  @DisplayName("verify encoder streams utf-8 encoded json into the sink")
+  @Test void verifyEncoderEncodesIntoSink() throws Exception {
+    Buffer b = new Buffer();
+    GsonEncoder.create().encode(new Model("universe\u2019s"), b);
+
+    assertEquals("{\"id\":\"universe\u2019s\"}", b.readUtf8());
+  }
+
   @DisplayName("verify encoder decodes the json to object")
   @Test void verifyEncoderDecodes() throws Exception {
     Buffer b = new Buffer();
@@ -42,6 +55,46 @@ class GsonEncoderTest {
     assertEquals(ALPHA, m);
   }
 
+  @DisplayName("verify encoder decodes utf-8 json with supplementary characters")
+  @Test void verifyEncoderDecodesUtf8() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"id\":\"\u03b1\ud83d\ude80\"}");
+
+    Model m = GsonEncoder.create().decode(b, Model.class);
+
+    assertEquals(new Model("\u03b1\ud83d\ude80"), m);
+  }
+
+  @DisplayName("verify encoder decodes array elements one at a time")
+  @Test void verifyEncoderDecodesEach() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"nbHits\":2,\"hits\":[{\"id\":\"alpha\"},{\"id\":\"beta\"}]}");
+
+    List<Model> models = new ArrayList<>();
+    GsonEncoder.create().<Model>decodeEach(b, "hits", Model.class, models::add);
+
+    assertEquals(Arrays.asList(ALPHA, new Model("beta")), models);
+  }
+
+  @DisplayName("verify typed decoder and encoder can be used repeatedly")
+  @Test void verifyTypedDecoderAndEncoder() throws Exception {
+    Encoder e = GsonEncoder.create();
+    Type type = getParameterized(null, List.class, Model.class);
+    Encoder.TypeDecoder<List<Model>> decoder = e.decoder(type);
+    Encoder.TypeEncoder<List<Model>> encoder = e.encoder(type);
+
+    // parameterized types describing the same type are interchangeable
+    assertEquals(type, getParameterized(null, List.class, Model.class));
+    assertEquals(type.hashCode(), getParameterized(null, List.class, Model.class).hashCode());
+
+    for (int i = 0; i < 2; i++) {
+      Buffer b = new Buffer();
+      encoder.encode(Arrays.asList(ALPHA, new Model("beta")), b);
+      assertEquals("[" + ALPHA_JSON + ",{\"id\":\"beta\"}]", b.snapshot().utf8());
+      assertEquals(Arrays.asList(ALPHA, new Model("beta")), decoder.decode(b));
+    }
+  }
+
   @DisplayName("verify encoder handles enums properly")
   @Test void verifyEnumHandledProperly() throws Exception {
     Encoder e = GsonEncoder.create();
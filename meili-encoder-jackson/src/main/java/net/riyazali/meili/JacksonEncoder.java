@@ -0,0 +1,220 @@
+package net.riyazali.meili;
+
+import com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.PropertyAccessor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@linkplain Encoder} implementation backed by Jackson
+ *
+ * <p>
+ * Objects are encoded with Jackson's streaming generator straight into the sink, and decoded with
+ * it's streaming parser straight off the source. The default mapper binds fields (like Gson
+ * does) rather than getters / setters, skips {@code null} values when encoding and uses bytecode
+ * generated accessors (Afterburner) where it can. Unlike Gson, Jackson needs a way to instantiate
+ * the document classes, so they must either have a no-argument constructor (which can be private)
+ * or a {@code JsonCreator}.
+ *
+ * <p>
+ * To use another mapper (for example, one with the Blackbird module registered on Java 11+), pass
+ * it to {@linkplain #create(ObjectMapper)}. The encoder configures a copy of the given mapper, so
+ * the caller's mapper is left as it is.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public class JacksonEncoder implements Encoder {
+
+  private final ObjectMapper mapper;
+
+  private JacksonEncoder(@NotNull ObjectMapper mapper) {
+    SimpleModule module = new SimpleModule("meili");
+    module.addSerializer(Update.Status.class, new LowerCaseEnumSerializer());
+    module.addDeserializer(Update.Status.class, new LowerCaseEnumDeserializer());
+    module.setMixInAnnotation(SearchPage.Response.class, SearchPageResponseMixin.class);
+
+    mapper.registerModule(new JavaTimeModule());
+    mapper.registerModule(module);
+
+    // keep the time zones as received, same as gson does
+    mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    mapper.disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+
+    // the api might return more fields than the document class declares
+    mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    // sources and sinks are owned by the caller
+    mapper.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    mapper.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+
+    this.mapper = mapper;
+  }
+
+  @Override public @NotNull <T> Source encode(@NotNull T object) {
+    Buffer buffer = new Buffer();
+    try {
+      encode(object, buffer);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer;
+  }
+
+  @Override public <T> void encode(@NotNull T object, @NotNull BufferedSink sink)
+      throws IOException {
+    // the generator writes utf-8 bytes straight into the sink's segments
+    mapper.writeValue(sink.outputStream(), object);
+  }
+
+  @Override public <T> @NotNull T decode(@NotNull Source json, @NotNull Type type) {
+    try {
+      return mapper.readValue(stream(json), mapper.constructType(type));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override public <T> @NotNull TypeDecoder<T> decoder(@NotNull Type type) {
+    // the reader (and it's deserializer) is resolved once, rather than on every call
+    ObjectReader reader = mapper.readerFor(mapper.constructType(type));
+    return json -> {
+      try {
+        return reader.readValue(stream(json));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  @Override public <T> @NotNull TypeEncoder<T> encoder(@NotNull Type type) {
+    ObjectWriter writer = mapper.writerFor(mapper.constructType(type));
+    return (value, sink) -> writer.writeValue(sink.outputStream(), value);
+  }
+
+  @Override public <T> void decodeEach(@NotNull Source json, @Nullable String field,
+      @NotNull Type elementType, @NotNull Consumer<? super T> consumer) {
+    ObjectReader reader = mapper.readerFor(mapper.constructType(elementType));
+    try (JsonParser parser = mapper.getFactory().createParser(stream(json))) {
+      parser.nextToken();
+      if (field != null) {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+          throw new JsonParseException(parser, "expected an object");
+        }
+
+        // skip over everything until we find the field we are looking for
+        boolean found = false;
+        while (!found && parser.nextToken() == JsonToken.FIELD_NAME) {
+          found = field.equals(parser.getCurrentName());
+          parser.nextToken();
+          if (!found) {
+            parser.skipChildren();
+          }
+        }
+
+        if (!found || parser.currentToken() == JsonToken.VALUE_NULL) {
+          return;
+        }
+      }
+
+      if (parser.currentToken() != JsonToken.START_ARRAY) {
+        throw new JsonParseException(parser, "expected an array");
+      }
+
+      while (parser.nextToken() != JsonToken.END_ARRAY) {
+        consumer.accept(reader.readValue(parser));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  // returns a stream that reads directly off the given source
+  private static @NotNull InputStream stream(@NotNull Source json) {
+    return (json instanceof BufferedSource ? (BufferedSource) json : Okio.buffer(json))
+        .inputStream();
+  }
+
+  // API returned status codes are in lower case but standard enum definitions are usually uppercase
+  // This serializer / deserializer pair allows us to do that transformation.
+  private static class LowerCaseEnumSerializer extends StdSerializer<Update.Status> {
+    private static final long serialVersionUID = 1L;
+
+    LowerCaseEnumSerializer() {
+      super(Update.Status.class);
+    }
+
+    @Override public void serialize(Update.Status value, JsonGenerator gen,
+        SerializerProvider provider) throws IOException {
+      gen.writeString(value.name().toLowerCase(Locale.ROOT));
+    }
+  }
+
+  private static class LowerCaseEnumDeserializer extends StdDeserializer<Update.Status> {
+    private static final long serialVersionUID = 1L;
+
+    LowerCaseEnumDeserializer() {
+      super(Update.Status.class);
+    }
+
+    @Override public Update.Status deserialize(JsonParser p, DeserializationContext context)
+        throws IOException {
+      return Update.Status.valueOf(p.getValueAsString().toUpperCase(Locale.ROOT));
+    }
+  }
+
+  // SearchPage.Response has no no-argument constructor; tell jackson to use the one it has
+  private abstract static class SearchPageResponseMixin {
+    @JsonCreator SearchPageResponseMixin(@JsonProperty("hits") List<?> hits) {
+    }
+  }
+
+  // Factories
+  // ------- - - - - -
+
+  public static @NotNull Encoder create() {
+    ObjectMapper mapper = new ObjectMapper();
+    mapper.setVisibility(PropertyAccessor.GETTER, Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.IS_GETTER, Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.SETTER, Visibility.NONE);
+    mapper.setVisibility(PropertyAccessor.FIELD, Visibility.ANY);
+    mapper.setSerializationInclusion(JsonInclude.Include.NON_NULL);
+    mapper.registerModule(new AfterburnerModule());
+    return new JacksonEncoder(mapper);
+  }
+
+  public static @NotNull Encoder create(@NotNull ObjectMapper mapper) {
+    // the mapper might be shared with the rest of the application; configure a copy of it instead
+    return new JacksonEncoder(mapper.copy());
+  }
+}
@@ -0,0 +1,148 @@
+package net.riyazali.meili.test;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import net.riyazali.meili.Encoder;
+import net.riyazali.meili.JacksonEncoder;
+import net.riyazali.meili.SearchPage;
+import net.riyazali.meili.Update;
+import okio.Buffer;
+import okio.ByteString;
+import okio.Okio;
+import okio.Source;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JacksonEncoderTest {
+
+  final Model ALPHA = new Model("alpha");
+
+  final String ALPHA_JSON = "{\"id\":\"alpha\"}";
+
+  @DisplayName("verify encoder encodes the value to json")
+  @Test void verifyEncoderEncodes() throws Exception {
+    Source s = JacksonEncoder.create().encode(ALPHA);
+    Buffer b = new Buffer();
+    b.writeAll(s);
+
+    assertEquals(new ByteString(ALPHA_JSON.getBytes()), b.readByteString());
+  }
+
+  @DisplayName("verify encoder streams utf-8 encoded json into the sink")
+  @Test void verifyEncoderEncodesIntoSink() throws Exception {
+    Buffer b = new Buffer();
+    JacksonEncoder.create().encode(new Model("universe\u2019s"), b);
+
+    assertEquals("{\"id\":\"universe\u2019s\"}", b.readUtf8());
+  }
+
+  @DisplayName("verify encoder skips null values")
+  @Test void verifyEncoderSkipsNulls() throws Exception {
+    Buffer b = new Buffer();
+    JacksonEncoder.create().encode(new Model(null), b);
+
+    assertEquals("{}", b.readUtf8());
+  }
+
+  @DisplayName("verify encoder decodes the json to object")
+  @Test void verifyEncoderDecodes() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"id\":\"alpha\",\"unknown\":true}");
+
+    Model m = JacksonEncoder.create().decode(Okio.source(b.inputStream()), Model.class);
+
+    assertEquals(ALPHA, m);
+  }
+
+  @DisplayName("verify encoder decodes utf-8 json with supplementary characters")
+  @Test void verifyEncoderDecodesUtf8() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"id\":\"\u03b1\ud83d\ude80\"}");
+
+    Model m = JacksonEncoder.create().decode(b, Model.class);
+
+    assertEquals(new Model("\u03b1\ud83d\ude80"), m);
+  }
+
+  @DisplayName("verify encoder decodes search responses")
+  @Test void verifyEncoderDecodesSearchResponse() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"nbHits\":2,\"hits\":[{\"id\":\"alpha\"},{\"id\":\"beta\"}]}");
+
+    SearchPage.Response<Model> r = JacksonEncoder.create().decode(b,
+        getParameterized(null, SearchPage.Response.class, Model.class));
+
+    assertEquals(2, r.nbHits());
+    assertEquals(Arrays.asList(ALPHA, new Model("beta")), r.hits());
+  }
+
+  @DisplayName("verify encoder decodes array elements one at a time")
+  @Test void verifyEncoderDecodesEach() throws Exception {
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"nbHits\":2,\"facets\":{\"a\":[1]},"
+        + "\"hits\":[{\"id\":\"alpha\"},{\"id\":\"beta\"}]}");
+
+    List<Model> models = new ArrayList<>();
+    JacksonEncoder.create().<Model>decodeEach(b, "hits", Model.class, models::add);
+
+    assertEquals(Arrays.asList(ALPHA, new Model("beta")), models);
+  }
+
+  @DisplayName("verify encoder handles updates properly")
+  @Test void verifyUpdateHandledProperly() throws Exception {
+    Encoder e = JacksonEncoder.create();
+
+    Source s = e.encode(Update.Status.ENQUEUED);
+    assertEquals(new ByteString("\"enqueued\"".getBytes()), Okio.buffer(s).readByteString());
+
+    Buffer b = new Buffer();
+    b.writeUtf8("{\"updateId\":1,\"status\":\"processed\",\"type\":{\"name\":\"DocumentsAddition\","
+        + "\"number\":4},\"duration\":0.5,\"enqueuedAt\":\"2020-05-29T08:35:35.123456Z\"}");
+    Update update = e.decode(b, Update.class);
+
+    assertEquals(1, update.updateId());
+    assertEquals(Update.Status.PROCESSED, update.status());
+    assertEquals("2020-05-29T08:35:35.123456Z", update.enqueuedAt().toString());
+  }
+
+  @DisplayName("verify encoder leaves the given mapper as it is")
+  @Test void verifyMapperIsCopied() throws Exception {
+    ObjectMapper mapper = new ObjectMapper();
+    JacksonEncoder.create(mapper);
+
+    assertTrue(mapper.isEnabled(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    assertTrue(mapper.getRegisteredModuleIds().isEmpty());
+  }
+
+  // dummy model class to use during tests
+  static final class Model {
+    private String id;
+
+    private Model() {
+      // used by jackson
+    }
+
+    Model(String id) {
+      this.id = id;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Model model = (Model) o;
+      return Objects.equals(id, model.id);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(id);
+    }
+  }
+}
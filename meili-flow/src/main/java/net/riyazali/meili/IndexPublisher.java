@@ -0,0 +1,242 @@
+package net.riyazali.meili;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Flow.Publisher Publisher} of the records in an index, or of the hits of a search,
+ * fetched page by page as the subscriber asks for them.
+ *
+ * <p>
+ * A page is only fetched once the subscriber has asked for more records than are left of the
+ * previous one, and it's limit is the number of records asked for (capped at the config's limit),
+ * so the subscriber's demand carries on all the way to the requests made to Meilisearch and no more
+ * than a page is ever held in memory. Pages are fetched one at a time and are decoded on the given
+ * executor, on which the subscriber is then signalled.
+ *
+ * <p>
+ * The publisher is cold: every subscriber gets it's own pass over the records, starting at the
+ * config's offset.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class IndexPublisher<T> implements Flow.Publisher<T> {
+
+  // fetches the page with the given offset and limit
+  private interface Fetcher<T> {
+    @NotNull CompletableFuture<? extends Page<T>> fetch(int offset, int limit);
+  }
+
+  private final Fetcher<T> fetcher;
+
+  // offset of the first page and max number of records in a page
+  private final int offset;
+  private final int limit;
+
+  private IndexPublisher(@NotNull PageConfig config, @NotNull Fetcher<T> fetcher) {
+    checkArgument(config.limit() > 0);
+    this.fetcher = checkNotNull(fetcher);
+    this.offset = config.offset();
+    this.limit = config.limit();
+  }
+
+  @Override public void subscribe(Flow.Subscriber<? super T> subscriber) {
+    Subscription subscription = new Subscription(checkNotNull(subscriber));
+    subscriber.onSubscribe(subscription);
+  }
+
+  // a single subscriber's pass over the records
+  private final class Subscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super T> subscriber;
+
+    // number of records asked for but not yet delivered
+    private final AtomicLong demand = new AtomicLong();
+
+    // serializes draining; only the thread which bumps it from zero drains
+    private final AtomicInteger wip = new AtomicInteger();
+
+    // page fetched but not yet picked up by the draining thread
+    private final AtomicReference<Page<T>> arrived = new AtomicReference<>();
+
+    // first error to signal to the subscriber, if any
+    private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+    private volatile boolean cancelled;
+
+    // the following are only accessed while draining
+    // ------ - - - - -
+
+    // offset of the next page to fetch
+    private long offset = IndexPublisher.this.offset;
+
+    // total number of records, if known
+    private long total = Long.MAX_VALUE;
+
+    // records of the current page, and the index of the next one to deliver
+    private List<T> page = Collections.emptyList();
+    private int next;
+
+    // the page being fetched, if any, and the limit it was asked for with
+    private @Nullable CompletableFuture<? extends Page<T>> inflight;
+    private int inflightLimit;
+
+    // set once there are no more pages to fetch
+    private boolean exhausted;
+
+    // set once the subscriber has been told the stream has ended, or has cancelled
+    private boolean done;
+
+    private Subscription(@NotNull Flow.Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override public void request(long n) {
+      if (n <= 0) {
+        fail(new IllegalArgumentException("non-positive demand: " + n));
+        return;
+      }
+
+      long current;
+      do {
+        current = demand.get();
+      } while (!demand.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+      drain();
+    }
+
+    @Override public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    private void fail(@NotNull Throwable throwable) {
+      error.compareAndSet(null, throwable);
+      drain();
+    }
+
+    // runs drainLoop() till no other thread has asked for it in the meantime
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+
+      int missed = 1;
+      do {
+        drainLoop();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    // delivers the fetched records and fetches the next page as long as there is demand for them
+    private void drainLoop() {
+      if (done) {
+        return;
+      }
+
+      Throwable failure = error.get();
+      if (cancelled || failure != null) {
+        done = true;
+        page = Collections.emptyList();
+        if (inflight != null) {
+          inflight.cancel(true);
+        }
+        if (!cancelled) {
+          subscriber.onError(failure);
+        }
+        return;
+      }
+
+      Page<T> fetched = arrived.getAndSet(null);
+      if (fetched != null) {
+        inflight = null;
+        page = fetched.results();
+        next = 0;
+        offset += inflightLimit;
+        exhausted = page.size() < inflightLimit;
+        if (fetched instanceof SearchPage) {
+          total = ((SearchPage<T>) fetched).count();
+        }
+      }
+
+      long requested = demand.get();
+      long delivered = 0;
+      while (delivered < requested && next < page.size() && !cancelled) {
+        subscriber.onNext(page.get(next++));
+        delivered++;
+      }
+      if (delivered > 0) {
+        demand.addAndGet(-delivered);
+      }
+
+      if (cancelled || next < page.size() || inflight != null) {
+        return; // a cancel is picked up by the next pass
+      }
+
+      if (exhausted || offset >= total) {
+        done = true;
+        subscriber.onComplete();
+        return;
+      }
+
+      long wanted = demand.get();
+      if (wanted > 0) {
+        fetch((int) Math.min(limit, wanted));
+      }
+    }
+
+    // fetch the next page; it's picked up by the next pass once it arrives
+    private void fetch(int size) {
+      CompletableFuture<? extends Page<T>> future = fetcher.fetch((int) offset, size);
+      inflight = future;
+      inflightLimit = size;
+      future.whenComplete((result, throwable) -> {
+        if (throwable != null) {
+          fail(throwable instanceof CompletionException ? throwable.getCause() : throwable);
+        } else {
+          arrived.set(result);
+          drain();
+        }
+      });
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  /**
+   * Create a publisher of all the records in the index, starting at the config's offset
+   *
+   * @param index    the index to scan
+   * @param config   page config, used as a template for all the pages
+   * @param executor executor to decode the pages on
+   */
+  public static <T> @NotNull IndexPublisher<T> all(
+      @NotNull Index<T> index, @NotNull PageConfig config, @NotNull Executor executor) {
+    return new IndexPublisher<>(config, (offset, limit) ->
+        index.allAsync(config.toBuilder().offset(offset).limit(limit).build(), executor));
+  }
+
+  /**
+   * Create a publisher of the hits of a search, starting at the config's offset
+   *
+   * @param index    the index to search
+   * @param config   search config, used as a template for all the pages
+   * @param executor executor to decode the pages on
+   */
+  public static <T> @NotNull IndexPublisher<T> search(
+      @NotNull Index<T> index, @NotNull SearchConfig config, @NotNull Executor executor) {
+    return new IndexPublisher<>(config, (offset, limit) ->
+        index.searchAsync(config.toBuilder().offset(offset).limit(limit).build(), executor));
+  }
+}
@@ -0,0 +1,177 @@
+package net.riyazali.meili;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+import java.util.function.BiConsumer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Flow.Subscriber Subscriber} which writes the documents it receives to an index in
+ * batches of {@linkplain BulkConfig#maxDocuments()} documents.
+ *
+ * <p>
+ * The subscriber asks for as many documents as fit in {@linkplain BulkConfig#maxInFlight()}
+ * batches, and only asks for more once a batch has been written, so a publisher is never ahead of
+ * Meilisearch by more than that. The last (partial) batch is written once the publisher completes;
+ * unlike a {@linkplain BulkIndexer} the subscriber doesn't flush batches after the configured
+ * linger time, and doesn't bound batches by their encoded size.
+ *
+ * <p>
+ * The subscriber can only be subscribed once. Once all the batches have been written, {@linkplain
+ * #completion()} completes with their updates (in the order the batches were sent in, whatever
+ * the order their writes complete in), or with the first error. A failed write cancels the subscription.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class IndexSubscriber<T> implements Flow.Subscriber<T> {
+
+  private final Index<T> index;
+  private final BulkConfig config;
+
+  private final CompletableFuture<List<Update>> completion = new CompletableFuture<>();
+
+  // guarded by this
+  private @Nullable Flow.Subscription subscription;
+  private List<T> batch = new ArrayList<>();
+
+  // updates of the batches, in the order the batches were sent in; a batch gets it's slot when
+  // it's sent, which is filled in once it has been written
+  private final List<Update> updates = new ArrayList<>();
+  private int inFlight;
+  private boolean completed;
+
+  private IndexSubscriber(@NotNull Index<T> index, @NotNull BulkConfig config) {
+    checkArgument(config.maxDocuments() > 0 && config.maxInFlight() > 0);
+    this.index = checkNotNull(index);
+    this.config = checkNotNull(config);
+  }
+
+  @Override public void onSubscribe(Flow.Subscription subscription) {
+    checkNotNull(subscription);
+    synchronized (this) {
+      if (this.subscription != null) {
+        subscription.cancel(); // only a single subscription is allowed
+        return;
+      }
+      this.subscription = subscription;
+    }
+    subscription.request((long) config.maxDocuments() * config.maxInFlight());
+  }
+
+  @Override public void onNext(T document) {
+    List<T> full = null;
+    int slot = -1;
+    synchronized (this) {
+      batch.add(checkNotNull(document));
+      if (batch.size() >= config.maxDocuments()) {
+        full = batch;
+        batch = new ArrayList<>();
+        slot = send();
+      }
+    }
+
+    if (full != null) {
+      write(full, slot);
+    }
+  }
+
+  @Override public void onError(Throwable throwable) {
+    completion.completeExceptionally(checkNotNull(throwable));
+  }
+
+  @Override public void onComplete() {
+    List<T> last = null;
+    int slot = -1;
+    synchronized (this) {
+      completed = true;
+      if (!batch.isEmpty()) {
+        last = batch;
+        batch = new ArrayList<>();
+        slot = send();
+      } else if (inFlight == 0) {
+        completion.complete(Collections.unmodifiableList(updates));
+      }
+    }
+
+    if (last != null) {
+      write(last, slot);
+    }
+  }
+
+  /**
+   * Returns the future which completes with the updates of all the batches once they have been
+   * written, or with the first error
+   */
+  public @NotNull CompletableFuture<List<Update>> completion() {
+    return completion;
+  }
+
+  // reserve the slot of a batch about to be sent; must be called while holding the lock
+  private int send() {
+    inFlight++;
+    updates.add(null);
+    return updates.size() - 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void write(@NotNull List<T> documents, int slot) {
+    T[] array = (T[]) documents.toArray();
+    CompletableFuture<Update> update = config.partial() ?
+        index.updateAsync(config.executor(), array) : index.insertAsync(config.executor(), array);
+    update.whenComplete((result, throwable) -> written(documents.size(), slot, result,
+        throwable instanceof CompletionException ? throwable.getCause() : throwable));
+  }
+
+  // called once a batch of the given size has been written (or has failed to)
+  private void written(int size, int slot, @Nullable Update update, @Nullable Throwable throwable) {
+    BiConsumer<? super Update, ? super Throwable> listener = config.listener();
+    if (listener != null) {
+      listener.accept(update, throwable);
+    }
+
+    Flow.Subscription subscription;
+    synchronized (this) {
+      inFlight--;
+      subscription = checkNotNull(this.subscription);
+      if (throwable == null) {
+        updates.set(slot, update);
+        if (completed) {
+          if (inFlight == 0) {
+            completion.complete(Collections.unmodifiableList(updates));
+          }
+          return;
+        }
+      }
+    }
+
+    if (throwable == null) {
+      subscription.request(size); // make room for another batch
+    } else {
+      subscription.cancel();
+      completion.completeExceptionally(throwable);
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  /**
+   * Create a new subscriber which writes the documents it receives to the given index
+   *
+   * @param index  the index to write to
+   * @param config batching configuration; only the max documents, max in-flight batches, partial
+   *               updates, executor and listener are used
+   */
+  public static <T> @NotNull IndexSubscriber<T> create(
+      @NotNull Index<T> index, @NotNull BulkConfig config) {
+    return new IndexSubscriber<>(index, config);
+  }
+}
@@ -0,0 +1,191 @@
+package net.riyazali.meili.test;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.BulkConfig;
+import net.riyazali.meili.Document;
+import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.Index;
+import net.riyazali.meili.IndexPublisher;
+import net.riyazali.meili.IndexSubscriber;
+import net.riyazali.meili.Meili;
+import net.riyazali.meili.PageConfig;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import net.riyazali.meili.Update;
+import okio.Buffer;
+import okio.Source;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class IndexFlowTest {
+
+  // mock for external services
+  @Mock Remote remote;
+
+  // executor that runs tasks on the calling thread
+  final Executor direct = Runnable::run;
+
+  @DisplayName("verify publisher only fetches as many documents as are asked for")
+  @Test void verifyPublisherFollowsDemand() throws Exception {
+    // given
+    List<String> limits = new ArrayList<>();
+    when(remote.get(any())).thenAnswer(i -> {
+      Request request = i.getArgument(0);
+      int offset = Integer.parseInt(request.query().get("offset"));
+      int limit = Integer.parseInt(request.query().get("limit"));
+      limits.add(request.query().get("limit"));
+
+      // the index has 5 books
+      StringBuilder json = new StringBuilder("[");
+      for (int id = offset; id < Math.min(offset + limit, 5); id++) {
+        json.append(id == offset ? "" : ",").append("{\"id\":\"").append(id).append("\"}");
+      }
+      return new StubResponse(200, new Buffer().writeUtf8(json.append(']').toString()));
+    });
+
+    Index<Book> index = new Meili(remote, GsonEncoder.create()).index(Book.class, false);
+    List<String> ids = new ArrayList<>();
+    boolean[] completed = new boolean[1];
+
+    // when
+    IndexPublisher.all(index, PageConfig.builder().limit(4).build(), direct)
+        .subscribe(new Flow.Subscriber<Book>() {
+          Flow.Subscription subscription;
+
+          @Override public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(3);
+          }
+
+          @Override public void onNext(Book book) {
+            ids.add(book.id);
+            if (ids.size() == 3) {
+              subscription.request(10);
+            }
+          }
+
+          @Override public void onError(Throwable throwable) {
+            throw new AssertionError(throwable);
+          }
+
+          @Override public void onComplete() {
+            completed[0] = true;
+          }
+        });
+
+    // then
+    assertEquals(List.of("0", "1", "2", "3", "4"), ids);
+    assertEquals(List.of("3", "4"), limits); // second page is short, so there's no third one
+    assertEquals(true, completed[0]);
+  }
+
+  @DisplayName("verify subscriber writes the documents it receives in batches")
+  @Test void verifySubscriberWritesBatches() throws Exception {
+    // given
+    when(remote.post(any())).thenAnswer(i -> new StubResponse(202,
+        new Buffer().writeUtf8("{\"updateId\": 0, \"status\": \"ENQUEUED\"}")));
+
+    Index<Book> index = new Meili(remote, GsonEncoder.create()).index(Book.class, false);
+    index.refreshOnWrite(false);
+    IndexSubscriber<Book> subscriber = IndexSubscriber.create(index,
+        BulkConfig.builder().maxDocuments(2).maxInFlight(1).executor(direct).build());
+
+    // when
+    try (SubmissionPublisher<Book> publisher = new SubmissionPublisher<>(direct, 4)) {
+      publisher.subscribe(subscriber);
+      for (int id = 0; id < 5; id++) {
+        publisher.submit(new Book(Integer.toString(id)));
+      }
+    }
+    List<Update> updates = subscriber.completion().get(5, TimeUnit.SECONDS);
+
+    // then
+    assertEquals(3, updates.size());
+    verify(remote, times(3)).post(any());
+  }
+
+  @DisplayName("verify subscriber reports updates in the order the batches were sent in")
+  @Test void verifySubscriberKeepsBatchOrder() throws Exception {
+    // given
+    when(remote.post(any())).thenAnswer(i -> {
+      Buffer body = new Buffer();
+      i.<Request>getArgument(0).body().writeTo(body);
+      String id = body.readUtf8().replaceAll("\\D", "").substring(0, 1); // first book's id
+      return new StubResponse(202, new Buffer()
+          .writeUtf8("{\"updateId\": " + id + ", \"status\": \"ENQUEUED\"}"));
+    });
+
+    Index<Book> index = new Meili(remote, GsonEncoder.create()).index(Book.class, false);
+    index.refreshOnWrite(false);
+    Deque<Runnable> tasks = new ArrayDeque<>();
+    IndexSubscriber<Book> subscriber = IndexSubscriber.create(index,
+        BulkConfig.builder().maxDocuments(2).maxInFlight(2).executor(tasks::add).build());
+
+    // when
+    try (SubmissionPublisher<Book> publisher = new SubmissionPublisher<>(direct, 4)) {
+      publisher.subscribe(subscriber);
+      for (int id = 0; id < 4; id++) {
+        publisher.submit(new Book(Integer.toString(id)));
+      }
+    }
+    while (!tasks.isEmpty()) {
+      tasks.pollLast().run(); // the second batch's write completes first
+    }
+    List<Update> updates = subscriber.completion().get(5, TimeUnit.SECONDS);
+
+    // then
+    assertEquals(2, updates.size());
+    assertEquals(0, updates.get(0).updateId());
+    assertEquals(2, updates.get(1).updateId());
+  }
+
+  @Document(index = "books", primaryKey = "id")
+  static class Book {
+    private String id;
+
+    private Book(String id) {
+      this.id = id;
+    }
+  }
+
+  static class StubResponse extends Response {
+    private final int status;
+    private final Source body;
+
+    StubResponse(int status, Source body) {
+      this.status = status;
+      this.body = body;
+    }
+
+    @Override public int status() {
+      return status;
+    }
+
+    @Override public @Nullable Source body() {
+      return body;
+    }
+
+    @Override public void close() {
+      // no-op
+    }
+  }
+}
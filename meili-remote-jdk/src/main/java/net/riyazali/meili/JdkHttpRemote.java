@@ -0,0 +1,372 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublisher;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Source;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} implementation that uses the JDK's own {@linkplain HttpClient} under the hood
+ *
+ * <p>
+ * The client negotiates HTTP/2 where the server supports it, in which case concurrent calls are
+ * multiplexed over a single connection. Request bodies are streamed to the network as they are
+ * written (each one written by a task on the remote's executor) and response bodies are streamed
+ * off it as they are read, so neither is ever held in memory as a whole.
+ *
+ * <p>
+ * By default the remote's executor (which is also given to the default client) runs every task on
+ * a virtual thread where the JVM supports them, and on a pooled daemon thread otherwise.
+ *
+ * <p>
+ * Using this remote removes okhttp from the classpath but not kotlin-stdlib, which still comes
+ * along with okio 2.x as part of the core module's api.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public class JdkHttpRemote implements AsyncRemote {
+
+  // size of the chunks request bodies are handed over to the client in
+  private static final int CHUNK_SIZE = 16 * 1024;
+
+  private final URI base;
+  private final @Nullable String token;
+  private final HttpClient client;
+  private final Executor executor;
+
+  private JdkHttpRemote(@NotNull String endpoint, @Nullable String token,
+      @NotNull HttpClient client, @NotNull Executor executor) {
+    this.base = URI.create(endpoint.endsWith("/") ? endpoint : endpoint + "/");
+    this.token = token;
+    this.client = checkNotNull(client);
+    this.executor = checkNotNull(executor);
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    try {
+      return new JdkResponseWrapper(
+          client.send(buildRequest(method, request), BodyHandlers.ofInputStream()));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    CompletableFuture<HttpResponse<InputStream>> call =
+        client.sendAsync(buildRequest(method, request), BodyHandlers.ofInputStream());
+
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        call.cancel(true);
+      }
+    });
+
+    call.whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        future.completeExceptionally(throwable instanceof CompletionException ?
+            throwable.getCause() : throwable);
+      } else if (!future.complete(new JdkResponseWrapper(response))) {
+        closeQuietly(response.body()); // future was cancelled concurrently
+      }
+    });
+
+    return future;
+  }
+
+  private @NotNull HttpRequest buildRequest(@NotNull String method, @NotNull Request request) {
+    HttpRequest.Builder builder = HttpRequest.newBuilder(buildUri(request));
+    if (token != null) {
+      builder.header("X-Meili-API-Key", token);
+    }
+
+    BodyPublisher body = BodyPublishers.noBody();
+    if (request.body() != null) {
+      builder.header("Content-Type", "application/json");
+      body = new StreamingBodyPublisher(request.body(), executor);
+    }
+
+    return builder.method(method, body).build();
+  }
+
+  private @NotNull URI buildUri(@NotNull Request request) {
+    URI uri = base.resolve(checkNotNull(request.path()));
+    Map<String, String> query = request.query();
+    if (query == null || query.isEmpty()) {
+      return uri;
+    }
+
+    StringBuilder url = new StringBuilder(uri.toString()).append('?');
+    if (query instanceof Query) {
+      // walk over the parameters without allocating an entry for each of them
+      Query q = (Query) query;
+      for (int i = 0; i < q.size(); i++) {
+        append(url, q.name(i), q.value(i));
+      }
+    } else {
+      for (Map.Entry<String, String> entry : query.entrySet()) {
+        append(url, entry.getKey(), entry.getValue());
+      }
+    }
+    return URI.create(url.toString());
+  }
+
+  private static void append(@NotNull StringBuilder url, @NotNull String name,
+      @NotNull String value) {
+    if (url.charAt(url.length() - 1) != '?') {
+      url.append('&');
+    }
+    url.append(encode(name)).append('=').append(encode(value));
+  }
+
+  // percent-encode a query component; spaces are encoded as %20 rather than as +
+  private static @NotNull String encode(@NotNull String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+  }
+
+  private static void closeQuietly(@NotNull InputStream stream) {
+    try {
+      stream.close();
+    } catch (IOException ignored) {
+      // nothing much we can do here
+    }
+  }
+
+  // BodyPublisher that streams the request's body to the client as it is written
+  // The body is written by a task on the executor, which waits for the client's demand before
+  // handing over every chunk, so that no more than a chunk is ever held in memory.
+  private static final class StreamingBodyPublisher implements BodyPublisher {
+    private final Body body;
+    private final Executor executor;
+
+    private StreamingBodyPublisher(@NotNull Body body, @NotNull Executor executor) {
+      this.body = body;
+      this.executor = executor;
+    }
+
+    @Override public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+      Subscription subscription = new Subscription(subscriber);
+      subscriber.onSubscribe(subscription);
+      executor.execute(subscription::write);
+    }
+
+    // a single write of the body; it's also the sink the body is written to
+    private final class Subscription implements Flow.Subscription, Sink {
+      private final Flow.Subscriber<? super ByteBuffer> subscriber;
+
+      // guarded by lock; unlike a monitor, waiting on it doesn't pin a virtual thread
+      private final Lock lock = new ReentrantLock();
+      private final Condition demanded = lock.newCondition();
+      private long demand;
+      private boolean cancelled;
+
+      private Subscription(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        this.subscriber = subscriber;
+      }
+
+      private void write() {
+        try (BufferedSink sink = Okio.buffer(this)) {
+          body.writeTo(sink);
+        } catch (IOException | RuntimeException e) {
+          if (!isCancelled()) {
+            subscriber.onError(e);
+          }
+          return;
+        }
+        subscriber.onComplete();
+      }
+
+      @Override public void write(@NotNull Buffer source, long byteCount) throws IOException {
+        while (byteCount > 0) {
+          awaitDemand();
+          int chunk = (int) Math.min(byteCount, CHUNK_SIZE);
+          subscriber.onNext(ByteBuffer.wrap(source.readByteArray(chunk)));
+          byteCount -= chunk;
+        }
+      }
+
+      @Override public void request(long n) {
+        if (n <= 0) {
+          cancel();
+          subscriber.onError(new IllegalArgumentException("non-positive demand: " + n));
+          return;
+        }
+
+        lock.lock();
+        try {
+          demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+          demanded.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      @Override public void cancel() {
+        lock.lock();
+        try {
+          cancelled = true;
+          demanded.signalAll();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      private boolean isCancelled() {
+        lock.lock();
+        try {
+          return cancelled;
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      // wait till the client asks for the next chunk
+      private void awaitDemand() throws IOException {
+        lock.lock();
+        try {
+          while (demand == 0 && !cancelled) {
+            demanded.await();
+          }
+          if (cancelled) {
+            throw new IOException("request cancelled");
+          }
+          demand--;
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new InterruptedIOException();
+        } finally {
+          lock.unlock();
+        }
+      }
+
+      @Override public void flush() {
+        // chunks are handed over as soon as they are written
+      }
+
+      @Override public @NotNull Timeout timeout() {
+        return Timeout.NONE;
+      }
+
+      @Override public void close() {
+        // the client is told about the end of the body once it's completely written
+      }
+    }
+  }
+
+  // Response implementation that wraps java.net.http.HttpResponse
+  private static final class JdkResponseWrapper extends Response {
+    private final HttpResponse<InputStream> response;
+    private @Nullable Source source;
+
+    JdkResponseWrapper(@NotNull HttpResponse<InputStream> response) {
+      this.response = checkNotNull(response);
+    }
+
+    @Override public int status() {
+      return response.statusCode();
+    }
+
+    @Override public synchronized @Nullable Source body() {
+      if (source == null) {
+        source = Okio.source(response.body());
+      }
+      return source;
+    }
+
+    @Override public void close() throws Exception {
+      response.body().close();
+    }
+  }
+
+  // holds the default executor, created on first use
+  private static final class DefaultExecutor {
+    private static final Executor INSTANCE = create();
+
+    // a virtual thread per task if the jvm has them (Java 21+), else a pool of daemon threads
+    private static @NotNull Executor create() {
+      try {
+        Method virtual = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        return (ExecutorService) virtual.invoke(null);
+      } catch (ReflectiveOperationException e) {
+        return Executors.newCachedThreadPool(runnable -> {
+          Thread thread = new Thread(runnable, "meili-jdk-remote");
+          thread.setDaemon(true);
+          return thread;
+        });
+      }
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  public static @NotNull JdkHttpRemote create(@NotNull String endpoint) {
+    return create(endpoint, (String) null);
+  }
+
+  public static @NotNull JdkHttpRemote create(@NotNull String endpoint, @Nullable String token) {
+    Executor executor = DefaultExecutor.INSTANCE;
+    HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .executor(executor)
+        .build();
+    return create(endpoint, token, client, executor);
+  }
+
+  public static @NotNull JdkHttpRemote create(
+      @NotNull String endpoint, @NotNull HttpClient client) {
+    return create(endpoint, null, client);
+  }
+
+  public static @NotNull JdkHttpRemote create(@NotNull String endpoint, @Nullable String token,
+      @NotNull HttpClient client) {
+    return create(endpoint, token, client, DefaultExecutor.INSTANCE);
+  }
+
+  /**
+   * Create a new remote
+   *
+   * @param executor executor to write request bodies on
+   */
+  public static @NotNull JdkHttpRemote create(@NotNull String endpoint, @Nullable String token,
+      @NotNull HttpClient client, @NotNull Executor executor) {
+    return new JdkHttpRemote(endpoint, token, client, executor);
+  }
+}
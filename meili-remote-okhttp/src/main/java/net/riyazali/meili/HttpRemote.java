@@ -2,12 +2,25 @@ package net.riyazali.meili;
 
 import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.HttpUrl;
-import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
 import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.ForwardingSource;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import okio.Sink;
 import okio.Source;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -17,88 +30,284 @@ import static net.riyazali.meili.Precondition.checkNotNull;
 /**
  * {@linkplain Remote} implementation that uses okhttp under the hood
  *
+ * <p>
+ * Asynchronous calls are dispatched using okhttp's {@linkplain okhttp3.Dispatcher dispatcher}. The
+ * default dispatcher only allows 5 concurrent requests per host, so consumers keeping a lot of
+ * requests in flight should supply a client with a suitably configured dispatcher.
+ *
+ * <p>
+ * Compression is opt-in (see {@linkplain #create(String, String, OkHttpClient, long)}). When
+ * enabled, request bodies at or above the given threshold (and bodies of unknown length, such as
+ * documents being inserted) are gzip-ed while they are written to the network, and compressed
+ * responses are requested from the server and decompressed while they are read. Neither is ever
+ * held in memory as a whole. See {@linkplain #compressionStats()} for the compression ratios
+ * achieved.
+ *
  * @author Riyaz Ali (me@riyazali.net)
  */
-public class HttpRemote implements Remote {
+public class HttpRemote implements AsyncRemote {
 
   // all REST API methods on meili support only application/json
   private static final MediaType MEDIA_TYPE_JSON =
       checkNotNull(MediaType.parse("application/json"));
 
+  // max number of resolved urls to keep around
+  private static final int MAX_URLS = 256;
+
   private final HttpUrl base;
+  private final @Nullable String token;
   private final OkHttpClient client;
 
-  private HttpRemote(
-      @NotNull final String endpoint, @Nullable final String token, @NotNull OkHttpClient client) {
+  // urls resolved against the base, by path; paths of single documents and updates are never
+  // cached (there's no end to them), so this only fills up with many indexes, in which case it's
+  // cleared once it grows beyond MAX_URLS
+  private final ConcurrentMap<String, HttpUrl> urls = new ConcurrentHashMap<>();
+
+  // min size of request bodies to compress; negative if compression is disabled
+  private final long gzipThreshold;
+
+  // compression counters
+  private final LongAdder requestsCompressed = new LongAdder();
+  private final LongAdder requestBytes = new LongAdder();
+  private final LongAdder requestBytesSent = new LongAdder();
+  private final LongAdder responsesCompressed = new LongAdder();
+  private final LongAdder responseBytes = new LongAdder();
+  private final LongAdder responseBytesReceived = new LongAdder();
+
+  private HttpRemote(@NotNull final String endpoint, @Nullable final String token,
+      @NotNull OkHttpClient client, long gzipThreshold) {
     this.base = checkNotNull(HttpUrl.parse(endpoint));
-    if (token != null) {
-      Interceptor interceptor = chain -> chain.proceed(
-          chain.request().newBuilder()
-              .addHeader("X-Meili-API-Key", token)
-              .build()
-      );
-      client = client.newBuilder().addInterceptor(interceptor).build();
-    }
+    this.token = token;
+    this.gzipThreshold = gzipThreshold;
     this.client = client;
   }
 
   @Override public @NotNull Response execute(
       @NotNull String method, @NotNull Request request) throws IOException {
-    return execute(
-        new okhttp3.Request.Builder()
-            .url(buildUrl(request))
-            .method(method, buildBody(request))
-            .build());
+    return execute(buildRequest(method, request));
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    Call call = client.newCall(buildRequest(method, request));
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    future.whenComplete((response, throwable) -> {
+      if (future.isCancelled()) {
+        call.cancel();
+      }
+    });
+
+    call.enqueue(new Callback() {
+      @Override public void onFailure(@NotNull Call call, @NotNull IOException e) {
+        future.completeExceptionally(e);
+      }
+
+      @Override public void onResponse(@NotNull Call call, @NotNull okhttp3.Response response) {
+        if (!future.complete(new Okhttp3ResponseWrapper(response))) {
+          response.close(); // future was cancelled concurrently
+        }
+      }
+    });
+
+    return future;
+  }
+
+  /**
+   * Returns a snapshot of the compression counters
+   */
+  public @NotNull CompressionStats compressionStats() {
+    return new CompressionStats(requestsCompressed.sum(), requestBytes.sum(),
+        requestBytesSent.sum(), responsesCompressed.sum(), responseBytes.sum(),
+        responseBytesReceived.sum());
+  }
+
+  private @NotNull okhttp3.Request buildRequest(@NotNull String method, @NotNull Request request) {
+    okhttp3.Request.Builder builder = new okhttp3.Request.Builder().url(buildUrl(request));
+    if (token != null) {
+      builder.header("X-Meili-API-Key", token);
+    }
+
+    RequestBody body = buildBody(request);
+    if (gzipThreshold >= 0) {
+      // asking for it explicitly turns off okhttp's transparent decompression so we can count
+      builder.header("Accept-Encoding", "gzip");
+
+      // bodies of unknown length are usually encoded documents, which are worth compressing
+      long length = request.body() != null ? request.body().contentLength() : 0;
+      if (body != null && (length < 0 || length >= gzipThreshold)) {
+        builder.header("Content-Encoding", "gzip");
+        body = new GzipRequestBody(body);
+      }
+    }
+
+    return builder.method(method, body).build();
   }
 
   private @NotNull HttpUrl buildUrl(@NotNull Request request) {
-    HttpUrl.Builder url = checkNotNull(base.newBuilder(request.path()));
-    if (request.query() != null) {
-      for (Map.Entry<String, String> entry : request.query().entrySet()) {
-        url.addQueryParameter(entry.getKey(), entry.getValue());
+    HttpUrl url = resolve(checkNotNull(request.path()));
+    Map<String, String> query = request.query();
+    if (query == null || query.isEmpty()) {
+      return url;
+    }
+
+    HttpUrl.Builder builder = url.newBuilder();
+    if (query instanceof Query) {
+      // walk over the parameters without allocating an entry for each of them
+      Query q = (Query) query;
+      for (int i = 0; i < q.size(); i++) {
+        builder.addQueryParameter(q.name(i), q.value(i));
+      }
+    } else {
+      for (Map.Entry<String, String> entry : query.entrySet()) {
+        builder.addQueryParameter(entry.getKey(), entry.getValue());
       }
     }
-    return url.build();
+    return builder.build();
+  }
+
+  // resolve the path against the base url, reusing an earlier resolution if there's one
+  private @NotNull HttpUrl resolve(@NotNull String path) {
+    if (!cacheable(path)) {
+      return checkNotNull(base.resolve(path));
+    }
+
+    HttpUrl url = urls.get(path);
+    if (url == null) {
+      url = checkNotNull(base.resolve(path));
+      if (urls.size() >= MAX_URLS) {
+        urls.clear();
+      }
+      urls.put(path, url);
+    }
+    return url;
+  }
+
+  // returns false for paths ending with the id of a document or update, such as
+  // /indexes/{uid}/documents/{id} and /indexes/{uid}/updates/{id}
+  private static boolean cacheable(@NotNull String path) {
+    int last = path.lastIndexOf('/');
+    if (last < 0 || path.endsWith("/delete-batch")) {
+      return true;
+    }
+    return !path.startsWith("/documents/", last - "/documents".length())
+        && !path.startsWith("/updates/", last - "/updates".length());
   }
 
   private @Nullable RequestBody buildBody(@NotNull Request request) {
     return request.body() != null ?
-        SourceRequestBody.create(request.body(), MEDIA_TYPE_JSON) : null;
+        StreamingRequestBody.create(request.body(), MEDIA_TYPE_JSON) : null;
   }
 
   private @NotNull Response execute(okhttp3.Request request) throws IOException {
     return new Okhttp3ResponseWrapper(client.newCall(request).execute());
   }
 
-  // RequestBody that reads from Source directly to sink
-  private static final class SourceRequestBody extends RequestBody {
+  // RequestBody that streams the request's body directly into the network sink
+  private static final class StreamingRequestBody extends RequestBody {
 
     private final MediaType mediaType;
-    private final Source source;
+    private final Body body;
 
-    private SourceRequestBody(MediaType mediaType, Source source) {
+    private StreamingRequestBody(MediaType mediaType, Body body) {
       this.mediaType = checkNotNull(mediaType);
-      this.source = checkNotNull(source);
+      this.body = checkNotNull(body);
     }
 
     @Nullable @Override public MediaType contentType() {
       return mediaType;
     }
 
+    @Override public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override public boolean isOneShot() {
+      return body.isOneShot(); // keeps okhttp from retrying requests it can't replay
+    }
+
     @Override public void writeTo(@NotNull BufferedSink bufferedSink) throws IOException {
-      bufferedSink.writeAll(source);
+      body.writeTo(bufferedSink);
     }
 
-    public static @NotNull RequestBody create(@NotNull Source source,
-        @NotNull MediaType mediaType) {
-      return new SourceRequestBody(mediaType, source);
+    public static @NotNull RequestBody create(@NotNull Body body, @NotNull MediaType mediaType) {
+      return new StreamingRequestBody(mediaType, body);
+    }
+  }
+
+  // RequestBody that gzip-s the wrapped body while it is written to the network
+  private final class GzipRequestBody extends RequestBody {
+    private final RequestBody body;
+
+    private GzipRequestBody(RequestBody body) {
+      this.body = checkNotNull(body);
+    }
+
+    @Nullable @Override public MediaType contentType() {
+      return body.contentType();
+    }
+
+    @Override public long contentLength() {
+      return -1; // not known until the whole body is compressed
+    }
+
+    @Override public boolean isOneShot() {
+      return body.isOneShot();
+    }
+
+    @Override public void writeTo(@NotNull BufferedSink bufferedSink) throws IOException {
+      CountingSink compressed = new CountingSink(bufferedSink);
+      CountingSink raw = new CountingSink(new GzipSink(compressed));
+      try (BufferedSink gzip = Okio.buffer(raw)) {
+        body.writeTo(gzip);
+      }
+
+      requestsCompressed.increment();
+      requestBytes.add(raw.bytes);
+      requestBytesSent.add(compressed.bytes);
+    }
+  }
+
+  // Sink that counts the number of bytes written through it
+  private static final class CountingSink extends ForwardingSink {
+    private long bytes;
+
+    private CountingSink(Sink delegate) {
+      super(delegate);
+    }
+
+    @Override public void write(@NotNull Buffer source, long byteCount) throws IOException {
+      super.write(source, byteCount);
+      bytes += byteCount;
+    }
+  }
+
+  // Source that counts the number of bytes read through it
+  private static final class CountingSource extends ForwardingSource {
+    private long bytes;
+
+    private CountingSource(Source delegate) {
+      super(delegate);
+    }
+
+    @Override public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+      long read = super.read(sink, byteCount);
+      if (read > 0) {
+        bytes += read;
+      }
+      return read;
     }
   }
 
   // Response implementation that wraps okhttp3.Response
-  private static final class Okhttp3ResponseWrapper extends Response {
+  // compressed bodies are decompressed while they are read
+  private final class Okhttp3ResponseWrapper extends Response {
     private final okhttp3.Response response;
 
+    // set once a compressed body is read
+    private @Nullable CountingSource compressed;
+    private @Nullable CountingSource decompressed;
+    private @Nullable Source source;
+
     Okhttp3ResponseWrapper(okhttp3.Response response) {
       this.response = checkNotNull(response);
     }
@@ -107,15 +316,107 @@ public class HttpRemote implements Remote {
       return response.code();
     }
 
-    @Override public @Nullable Source body() {
-      return response.body() != null ? checkNotNull(response.body()).source() : null;
+    @Override public synchronized @Nullable Source body() {
+      ResponseBody body = response.body();
+      if (body == null) {
+        return null;
+      }
+
+      if (!"gzip".equalsIgnoreCase(response.header("Content-Encoding"))) {
+        return body.source();
+      }
+
+      if (source == null) {
+        compressed = new CountingSource(body.source());
+        decompressed = new CountingSource(new GzipSource(compressed));
+        source = Okio.buffer(decompressed);
+      }
+      return source;
     }
 
     @Override public void close() throws Exception {
+      synchronized (this) {
+        if (compressed != null && decompressed != null) {
+          responsesCompressed.increment();
+          responseBytes.add(decompressed.bytes);
+          responseBytesReceived.add(compressed.bytes);
+          compressed = decompressed = null;
+        }
+      }
       response.close();
     }
   }
 
+  /* CompressionStats represents a snapshot of the remote's compression counters */
+  public static final class CompressionStats {
+    private final long requestsCompressed;
+    private final long requestBytes;
+    private final long requestBytesSent;
+    private final long responsesCompressed;
+    private final long responseBytes;
+    private final long responseBytesReceived;
+
+    private CompressionStats(long requestsCompressed, long requestBytes, long requestBytesSent,
+        long responsesCompressed, long responseBytes, long responseBytesReceived) {
+      this.requestsCompressed = requestsCompressed;
+      this.requestBytes = requestBytes;
+      this.requestBytesSent = requestBytesSent;
+      this.responsesCompressed = responsesCompressed;
+      this.responseBytes = responseBytes;
+      this.responseBytesReceived = responseBytesReceived;
+    }
+
+    // number of request bodies compressed
+    public long requestsCompressed() {
+      return requestsCompressed;
+    }
+
+    // size of the compressed request bodies before compression
+    public long requestBytes() {
+      return requestBytes;
+    }
+
+    // size of the compressed request bodies after compression
+    public long requestBytesSent() {
+      return requestBytesSent;
+    }
+
+    // number of compressed responses read
+    public long responsesCompressed() {
+      return responsesCompressed;
+    }
+
+    // size of the compressed responses after decompression
+    public long responseBytes() {
+      return responseBytes;
+    }
+
+    // size of the compressed responses as received
+    public long responseBytesReceived() {
+      return responseBytesReceived;
+    }
+
+    /**
+     * Returns the ratio of uncompressed to compressed size of request bodies
+     */
+    public double requestRatio() {
+      return requestBytesSent == 0 ? 0 : (double) requestBytes / requestBytesSent;
+    }
+
+    /**
+     * Returns the ratio of uncompressed to compressed size of responses
+     */
+    public double responseRatio() {
+      return responseBytesReceived == 0 ? 0 : (double) responseBytes / responseBytesReceived;
+    }
+
+    @Override public String toString() {
+      return String.format("CompressionStats(requests=%d, requestRatio=%.2f, responses=%d, "
+          + "responseRatio=%.2f)", requestsCompressed, requestRatio(), responsesCompressed,
+          responseRatio());
+    }
+  }
+
   // Factories
   // ------ - - - - -
 
@@ -133,6 +434,19 @@ public class HttpRemote implements Remote {
 
   public static @NotNull Remote create(@NotNull String endpoint, @Nullable String token,
       @NotNull OkHttpClient client) {
-    return new HttpRemote(endpoint, token, client);
+    return create(endpoint, token, client, -1);
+  }
+
+  /**
+   * Create a new remote with gzip compression enabled. Unlike the other factories this one returns
+   * the remote as an {@code HttpRemote}, which gives access to it's {@linkplain #compressionStats()
+   * compression stats}.
+   *
+   * @param gzipThreshold min size (in bytes) of request bodies to compress, or a negative value to
+   *                      disable compression altogether (including of responses)
+   */
+  public static @NotNull HttpRemote create(@NotNull String endpoint, @Nullable String token,
+      @NotNull OkHttpClient client, long gzipThreshold) {
+    return new HttpRemote(endpoint, token, client, gzipThreshold);
   }
 }
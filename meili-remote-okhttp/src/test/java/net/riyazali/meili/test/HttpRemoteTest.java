@@ -0,0 +1,128 @@
+package net.riyazali.meili.test;
+
+import net.riyazali.meili.HttpRemote;
+import net.riyazali.meili.HttpRemote.CompressionStats;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Body;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import okio.GzipSink;
+import okio.GzipSource;
+import okio.Okio;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HttpRemoteTest {
+
+  final String DOCUMENTS = "[{\"id\":\"alpha\"},{\"id\":\"beta\"},{\"id\":\"gamma\"}]";
+
+  MockWebServer server;
+
+  @BeforeEach void setup() throws Exception {
+    server = new MockWebServer();
+    server.start();
+  }
+
+  @AfterEach void teardown() throws Exception {
+    server.shutdown();
+  }
+
+  @DisplayName("verify request and response bodies are gzip-ed on the wire and counted")
+  @Test void verifyGzipRoundTrip() throws Exception {
+    // given
+    long received = gzip(DOCUMENTS).size();
+    server.enqueue(new MockResponse().setResponseCode(200)
+        .setHeader("Content-Encoding", "gzip").setBody(gzip(DOCUMENTS)));
+    HttpRemote remote = HttpRemote.create(server.url("/").toString(), null,
+        new OkHttpClient.Builder().build(), 0);
+
+    // when
+    String body;
+    Request request = Request.builder().path("indexes/movies/documents")
+        .body(Body.of(new Buffer().writeUtf8(DOCUMENTS))).build();
+    try (Response response = remote.post(request)) {
+      body = Okio.buffer(response.body()).readUtf8();
+    }
+    RecordedRequest recorded = server.takeRequest();
+
+    // then
+    assertEquals(DOCUMENTS, body);
+    assertEquals("gzip", recorded.getHeader("Content-Encoding"));
+    assertEquals("gzip", recorded.getHeader("Accept-Encoding"));
+    long sent = recorded.getBodySize();
+    assertEquals(DOCUMENTS, gunzip(recorded.getBody()));
+
+    CompressionStats stats = remote.compressionStats();
+    assertEquals(1, stats.requestsCompressed());
+    assertEquals(DOCUMENTS.length(), stats.requestBytes());
+    assertEquals(sent, stats.requestBytesSent());
+    assertEquals(1, stats.responsesCompressed());
+    assertEquals(DOCUMENTS.length(), stats.responseBytes());
+    assertEquals(received, stats.responseBytesReceived());
+  }
+
+  @DisplayName("verify bodies are sent as-is when compression is disabled")
+  @Test void verifyNoGzipByDefault() throws Exception {
+    // given
+    server.enqueue(new MockResponse().setResponseCode(202).setBody("{}"));
+    HttpRemote remote = HttpRemote.create(server.url("/").toString(), null,
+        new OkHttpClient.Builder().build(), -1);
+
+    // when
+    Request request = Request.builder().path("indexes/movies/documents")
+        .body(Body.of(new Buffer().writeUtf8(DOCUMENTS))).build();
+    try (Response response = remote.post(request)) {
+      assertEquals(202, response.status());
+    }
+    RecordedRequest recorded = server.takeRequest();
+
+    // then
+    assertNull(recorded.getHeader("Content-Encoding"));
+    assertEquals(DOCUMENTS, recorded.getBody().readUtf8());
+    assertEquals(0, remote.compressionStats().requestsCompressed());
+  }
+
+  @DisplayName("verify paths of single documents and of collections resolve to the right urls")
+  @Test void verifyPathsResolve() throws Exception {
+    // given
+    Remote remote = HttpRemote.create(server.url("/").toString());
+    String[] paths = {"/indexes/movies/documents", "/indexes/movies/documents/1",
+        "/indexes/movies/documents/2", "/indexes/movies/documents/delete-batch",
+        "/indexes/movies/updates/3", "/indexes/movies/documents"};
+
+    // when
+    for (String path : paths) {
+      server.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+      remote.get(Request.builder().path(path).build()).close();
+    }
+
+    // then
+    for (String path : paths) {
+      assertEquals(path, server.takeRequest().getPath());
+    }
+  }
+
+  // returns the gzip-ed utf-8 bytes of the given string
+  static Buffer gzip(String value) throws Exception {
+    Buffer buffer = new Buffer();
+    try (GzipSink sink = new GzipSink(buffer)) {
+      sink.write(new Buffer().writeUtf8(value), value.length());
+    }
+    return buffer;
+  }
+
+  // returns the string read off the given gzip-ed buffer
+  static String gunzip(Buffer buffer) throws Exception {
+    return Okio.buffer(new GzipSource(buffer)).readUtf8();
+  }
+}
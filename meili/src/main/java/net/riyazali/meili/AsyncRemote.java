@@ -0,0 +1,73 @@
+package net.riyazali.meili;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * AsyncRemote represents a {@linkplain Remote} capable of executing requests without blocking the
+ * calling thread.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @apiNote Futures returned by this interface are completed on the remote's own dispatcher threads.
+ * Consumers must not perform any blocking operation in dependent stages and should instead hop on
+ * to an executor they own (the asynchronous methods on {@linkplain Index} do exactly that).
+ * Cancelling a returned future should cancel the underlying call on a best-effort basis.
+ * Subclasses of this interface must ensure thread-safety and should be designed for concurrent
+ * usage.
+ */
+public interface AsyncRemote extends Remote {
+
+  /**
+   * Asynchronously execute the given request using supplied HTTP method
+   *
+   * @param method  HTTP method to use
+   * @param request request object to send
+   * @return future that completes with the response once it's headers are available
+   */
+  @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request);
+
+  /**
+   * Perform an asynchronous GET operation on the given resource
+   */
+  default @NotNull CompletableFuture<Response> getAsync(@NotNull Request request) {
+    return executeAsync("GET", request);
+  }
+
+  /**
+   * Perform an asynchronous POST operation on the given resource
+   */
+  default @NotNull CompletableFuture<Response> postAsync(@NotNull Request request) {
+    return executeAsync("POST", request);
+  }
+
+  /**
+   * Perform an asynchronous PUT operation on the given resource
+   */
+  default @NotNull CompletableFuture<Response> putAsync(@NotNull Request request) {
+    return executeAsync("PUT", request);
+  }
+
+  /**
+   * Perform an asynchronous DELETE operation on the given resource
+   */
+  default @NotNull CompletableFuture<Response> deleteAsync(@NotNull Request request) {
+    return executeAsync("DELETE", request);
+  }
+
+  /**
+   * Returns an {@linkplain AsyncRemote} view of the given remote.
+   *
+   * <p>
+   * If the remote is already asynchronous it is returned as-is, else the returned instance runs the
+   * blocking calls on the given executor.
+   *
+   * @param remote   remote to adapt
+   * @param executor executor to run blocking calls on
+   */
+  static @NotNull AsyncRemote adapt(@NotNull Remote remote, @NotNull Executor executor) {
+    return remote instanceof AsyncRemote ?
+        (AsyncRemote) remote : new BlockingAsyncRemote(remote, executor);
+  }
+}
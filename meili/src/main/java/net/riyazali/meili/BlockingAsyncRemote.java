@@ -0,0 +1,47 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// AsyncRemote implementation that runs a blocking remote on an executor
+// see: AsyncRemote.adapt(...)
+final class BlockingAsyncRemote implements AsyncRemote {
+  private final Remote remote;
+  private final Executor executor;
+
+  BlockingAsyncRemote(@NotNull Remote remote, @NotNull Executor executor) {
+    this.remote = checkNotNull(remote);
+    this.executor = checkNotNull(executor);
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    return Remotes.dispatch(remote, method, request);
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    // run through runAsync(...) so that a common pool without parallelism gets a thread per call
+    CompletableFuture<Response> future = new CompletableFuture<>();
+    CompletableFuture.runAsync(() -> {
+      if (future.isDone()) {
+        return; // cancelled before it got to run
+      }
+
+      try {
+        Response response = execute(method, request);
+        if (!future.complete(response)) {
+          // the call can't be interrupted, so a cancelled one still gets it's response; close it
+          Remotes.closeQuietly(response);
+        }
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }, executor);
+    return future;
+  }
+}
@@ -0,0 +1,48 @@
+package net.riyazali.meili;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+
+// Token bucket used to bound extra requests (such as hedges or retries) to a share of all requests
+// Every request adds it's share to the budget and every extra request takes a whole one out of it.
+// The budget is kept in thousandths of a request, and at most 100 requests can be saved up. It
+// starts off with 10 requests' worth so that the very first requests aren't left without any.
+final class Budget {
+
+  private static final long MAX = 100 * 1000;
+
+  // thousandths of a request added with every request
+  private final long deposit;
+
+  private final AtomicLong balance = new AtomicLong(10 * 1000);
+
+  /* create a new budget allowing up to the given percentage of extra requests */
+  Budget(double percent) {
+    checkArgument(percent >= 0 && percent <= 100);
+    this.deposit = Math.round(percent * 10);
+  }
+
+  /* add a single request's share to the budget */
+  void earn() {
+    long current;
+    do {
+      current = balance.get();
+      if (current >= MAX) {
+        return;
+      }
+    } while (!balance.compareAndSet(current, Math.min(MAX, current + deposit)));
+  }
+
+  /* take a single extra request out of the budget; returns false if there isn't enough left */
+  boolean spend() {
+    long current;
+    do {
+      current = balance.get();
+      if (current < 1000) {
+        return false;
+      }
+    } while (!balance.compareAndSet(current, current - 1000));
+    return true;
+  }
+}
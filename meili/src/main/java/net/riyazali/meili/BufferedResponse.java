@@ -0,0 +1,64 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import okio.Buffer;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// Response implementation backed by an in-memory copy of another response's body
+//
+// Used by Remote decorators that need to hand over the same response more than once. Reading the
+// response holds it's whole body in memory; every duplicate then gets a buffer of it's own which
+// shares the segments of the original, so no bytes are copied per duplicate.
+final class BufferedResponse extends Remote.Response {
+
+  private final int status;
+  private final Buffer bytes; // never consumed
+  private final Buffer body;
+
+  private BufferedResponse(int status, @NotNull Buffer bytes) {
+    this.status = status;
+    this.bytes = checkNotNull(bytes);
+    this.body = new Buffer();
+    bytes.copyTo(body, 0, bytes.size());
+  }
+
+  @Override public int status() {
+    return status;
+  }
+
+  @Override public @Nullable Source body() {
+    return body;
+  }
+
+  @Override public void close() {
+    body.clear();
+  }
+
+  /* returns the size of the buffered body */
+  long size() {
+    return bytes.size();
+  }
+
+  /* returns a new response over the same body */
+  @NotNull BufferedResponse duplicate() {
+    return new BufferedResponse(status, bytes);
+  }
+
+  /* read the given response into memory, closing it afterwards */
+  static @NotNull BufferedResponse read(@NotNull Remote.Response response) throws IOException {
+    try {
+      Source body = response.body();
+      Buffer buffer = new Buffer();
+      if (body != null) {
+        buffer.writeAll(body);
+      }
+      return new BufferedResponse(response.status(), buffer);
+    } finally {
+      Remotes.closeQuietly(response);
+    }
+  }
+}
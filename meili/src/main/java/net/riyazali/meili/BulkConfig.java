@@ -0,0 +1,50 @@
+package net.riyazali.meili;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * BulkConfig configures the batching behaviour of a {@linkplain BulkIndexer}
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+@Accessors(fluent = true)
+@Builder @Getter public class BulkConfig {
+
+  /* Max number of documents in a single batch */
+  @Builder.Default private final int maxDocuments = 1_000;
+
+  /* Max size (in bytes) of a single encoded batch */
+  @Builder.Default private final long maxBytes = 4 * 1024 * 1024;
+
+  /* Max time a document waits in a batch before the batch is flushed */
+  @Builder.Default private final Duration linger = Duration.ofMillis(200);
+
+  /* Max number of batches in flight; producers block once this limit is reached */
+  @Builder.Default private final int maxInFlight = 4;
+
+  /* Whether documents are partially updated (PUT) instead of being replaced (POST) */
+  @Builder.Default private final boolean partial = false;
+
+  /* Executor to decode the responses on */
+  @Builder.Default private final Executor executor = ForkJoinPool.commonPool();
+
+  /* Listener invoked with the update (or the error) once a batch is sent */
+  @Nullable private final BiConsumer<? super Update, ? super Throwable> listener;
+
+  /**
+   * Returns the default bulk configuration
+   *
+   * @return BulkConfig with default values
+   */
+  public static @NotNull BulkConfig getDefault() {
+    return builder().build();
+  }
+}
@@ -0,0 +1,220 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import net.riyazali.meili.Remote.Body;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+import static net.riyazali.meili.Precondition.checkState;
+
+/**
+ * BulkIndexer accepts a continuous stream of documents and writes them to an index in batches.
+ *
+ * <p>
+ * Documents are encoded as soon as they are {@linkplain #add(Object) added} and buffered into a
+ * batch. A batch is sent once it reaches the configured number of documents or encoded size, or once
+ * it's oldest document has waited for the configured linger time. At most {@linkplain
+ * BulkConfig#maxInFlight()} batches are in flight at any time; once the limit is reached producers
+ * block until a batch completes.
+ *
+ * <p>
+ * Instances of this class are thread-safe and can be safely used concurrently. Make sure to
+ * {@linkplain #close() close} the indexer to send the last batch and release it's resources.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @see Index#bulkIndexer(BulkConfig)
+ */
+public final class BulkIndexer<T> implements AutoCloseable {
+
+  private final Index<T> index;
+  private final BulkConfig config;
+
+  // limits the number of batches in flight
+  private final Semaphore inFlight;
+
+  // used to flush batches once they linger for long enough
+  private final ScheduledExecutorService scheduler;
+
+  // batch currently being filled; guarded by this
+  private Buffer batch = new Buffer();
+  private int batchDocuments;
+  private long generation;
+  private boolean closed;
+
+  // throughput counters
+  private final long startedAt = System.nanoTime();
+  private final LongAdder documents = new LongAdder();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+
+  BulkIndexer(@NotNull Index<T> index, @NotNull BulkConfig config) {
+    checkArgument(config.maxDocuments() > 0 && config.maxBytes() > 0);
+    checkArgument(config.maxInFlight() > 0 && !config.linger().isNegative());
+
+    this.index = checkNotNull(index);
+    this.config = checkNotNull(config);
+    this.inFlight = new Semaphore(config.maxInFlight());
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "meili-bulk-indexer-" + index.uid());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Add a document to the current batch, sending the batch if it's full. Blocks if the max number
+   * of batches are already in flight.
+   *
+   * @param document document to add
+   */
+  public void add(@NotNull T document) throws IOException, InterruptedException {
+    // encode outside of the lock so that producers can encode concurrently
+    Buffer encoded = new Buffer();
+    index.encoder().encode(checkNotNull(document), encoded);
+
+    synchronized (this) {
+      checkState(!closed);
+      if (batchDocuments > 0 && batch.size() + encoded.size() + 2 > config.maxBytes()) {
+        send();
+      }
+
+      if (batchDocuments == 0) {
+        batch.writeByte('[');
+        long current = generation;
+        scheduler.schedule(() -> linger(current), config.linger().toNanos(), TimeUnit.NANOSECONDS);
+      } else {
+        batch.writeByte(',');
+      }
+
+      batch.write(encoded, encoded.size());
+      batchDocuments++;
+      documents.increment();
+
+      if (batchDocuments >= config.maxDocuments() || batch.size() + 1 >= config.maxBytes()) {
+        send();
+      }
+    }
+  }
+
+  /**
+   * Send the current batch, even if it isn't full yet. Blocks if the max number of batches are
+   * already in flight.
+   *
+   * @return future that completes with the batch's update, or with {@code null} if the batch was
+   * empty
+   */
+  public synchronized @NotNull CompletableFuture<Update> flush() throws InterruptedException {
+    return send();
+  }
+
+  /**
+   * Returns a snapshot of the indexer's throughput statistics
+   */
+  public @NotNull Stats stats() {
+    return new Stats(documents.sum(), batches.sum(), bytes.sum(), failures.sum(),
+        config.maxInFlight() - inFlight.availablePermits(),
+        Duration.ofNanos(System.nanoTime() - startedAt));
+  }
+
+  /**
+   * Send the last batch and wait for all the batches in flight to complete
+   */
+  @Override public void close() throws InterruptedException {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      send();
+      closed = true;
+    }
+
+    scheduler.shutdownNow();
+    inFlight.acquire(config.maxInFlight()); // wait for in-flight batches
+    inFlight.release(config.maxInFlight());
+  }
+
+  // send the current batch; must be called while holding the lock
+  private @NotNull CompletableFuture<Update> send() throws InterruptedException {
+    if (batchDocuments == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    inFlight.acquire(); // apply backpressure
+
+    Buffer payload = batch.writeByte(']');
+    batch = new Buffer();
+    batchDocuments = 0;
+    generation++;
+
+    batches.increment();
+    bytes.add(payload.size());
+
+    CompletableFuture<Update> future;
+    try {
+      future = index.writeAsync(config.partial(), Body.of(payload), config.executor());
+    } catch (RuntimeException e) {
+      future = Futures.failed(e);
+    }
+
+    return future.whenComplete((update, throwable) -> {
+      inFlight.release();
+      if (throwable != null) {
+        failures.increment();
+      }
+      if (config.listener() != null) {
+        config.listener().accept(update, throwable);
+      }
+    });
+  }
+
+  // flush the batch of the given generation if it's still being filled
+  private synchronized void linger(long batchGeneration) {
+    if (!closed && generation == batchGeneration) {
+      try {
+        send();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  /* Stats represents a snapshot of the indexer's throughput */
+  @Accessors(fluent = true)
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @ToString @Getter public static final class Stats {
+    // number of documents added
+    private final long documents;
+    // number of batches sent
+    private final long batches;
+    // number of encoded bytes sent
+    private final long bytes;
+    // number of batches that failed
+    private final long failures;
+    // number of batches currently in flight
+    private final int inFlight;
+    // time elapsed since the indexer was created
+    private final Duration elapsed;
+
+    /**
+     * Returns the average number of documents added per second
+     */
+    public double documentsPerSecond() {
+      return elapsed.isZero() ? 0 : documents * 1e9 / elapsed.toNanos();
+    }
+  }
+}
@@ -0,0 +1,226 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} decorator that coalesces identical concurrent reads into a single call.
+ *
+ * <p>
+ * When a GET request is executed while an identical one (same path and query parameters) is still
+ * in flight, no new call is made; instead the caller waits for the in-flight call and receives a
+ * copy of it's response. Only calls that are in flight at the same time are shared, so responses
+ * are never stale. All other methods are passed through as-is.
+ *
+ * <p>
+ * A response is read into memory only when another caller has joined it's call, in which case
+ * every caller gets it's own source over the same (shared, never copied) segments. Responses
+ * nobody joins, such as large streamed reads, are handed over as-is. If the delegate isn't an
+ * {@linkplain AsyncRemote} asynchronous calls run it on the executor given during creation.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class CoalescingRemote implements AsyncRemote {
+
+  private final Remote delegate;
+  private final AsyncRemote async;
+
+  // in-flight reads keyed by path and query
+  private final Map<Key, InFlight> inflight = new ConcurrentHashMap<>();
+
+  // number of calls that were served by an in-flight call
+  private final LongAdder coalesced = new LongAdder();
+
+  private CoalescingRemote(@NotNull Remote delegate, @NotNull Executor executor) {
+    this.delegate = checkNotNull(delegate);
+    this.async = AsyncRemote.adapt(delegate, executor);
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    if (!"GET".equals(method)) {
+      return Remotes.dispatch(delegate, method, request);
+    }
+
+    Key key = new Key(request);
+    InFlight call = new InFlight();
+    for (InFlight shared; (shared = inflight.putIfAbsent(key, call)) != null; ) {
+      if (shared.join()) {
+        coalesced.increment();
+        return await(shared.response).duplicate();
+      }
+      // the response has already been handed over; try again once it's call is gone
+    }
+
+    Response response;
+    try {
+      response = delegate.get(request);
+    } catch (IOException | RuntimeException e) {
+      seal(key, call);
+      call.response.completeExceptionally(e);
+      throw e;
+    }
+    return handOver(key, call, response);
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    if (!"GET".equals(method)) {
+      return async.executeAsync(method, request);
+    }
+
+    Key key = new Key(request);
+    InFlight call = new InFlight();
+    for (InFlight shared; (shared = inflight.putIfAbsent(key, call)) != null; ) {
+      if (shared.join()) {
+        coalesced.increment();
+        return shared.response.thenApply(BufferedResponse::duplicate);
+      }
+    }
+
+    // callers cancelling their future must not cancel the call others are waiting for
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    async.getAsync(request).whenComplete((response, throwable) -> {
+      if (throwable != null) {
+        seal(key, call);
+        call.response.completeExceptionally(throwable);
+        result.completeExceptionally(throwable);
+        return;
+      }
+
+      Response handed;
+      try {
+        handed = handOver(key, call, response);
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+        return;
+      }
+      if (!result.complete(handed)) {
+        Remotes.closeQuietly(handed); // caller cancelled in the meantime
+      }
+    });
+
+    return result;
+  }
+
+  /**
+   * Returns the number of calls that were served by an identical in-flight call
+   */
+  public long coalesced() {
+    return coalesced.sum();
+  }
+
+  // stop others from joining the call; returns the number of callers that joined it
+  private int seal(@NotNull Key key, @NotNull InFlight call) {
+    inflight.remove(key, call);
+    return call.seal();
+  }
+
+  // hand the response over to the caller, buffering it only if others are waiting for it too
+  private @NotNull Response handOver(@NotNull Key key, @NotNull InFlight call,
+      @NotNull Response response) throws IOException {
+    if (seal(key, call) == 0) {
+      return response; // nobody else wants it, so stream it as-is
+    }
+
+    BufferedResponse buffered;
+    try {
+      buffered = BufferedResponse.read(response);
+    } catch (IOException | RuntimeException e) {
+      call.response.completeExceptionally(e);
+      throw e;
+    }
+    call.response.complete(buffered);
+    return buffered;
+  }
+
+  // wait for the in-flight call to complete
+  private static @NotNull BufferedResponse await(
+      @NotNull CompletableFuture<BufferedResponse> call) throws IOException {
+    try {
+      return call.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException ?
+          e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  // a read in flight along with the callers who joined it
+  private static final class InFlight {
+    // completes with the buffered response once the call is done, if anyone joined it
+    private final CompletableFuture<BufferedResponse> response = new CompletableFuture<>();
+
+    private int joined;
+    private boolean sealed;
+
+    // returns false if the response has already been handed over
+    private synchronized boolean join() {
+      if (sealed) {
+        return false;
+      }
+      joined++;
+      return true;
+    }
+
+    private synchronized int seal() {
+      sealed = true;
+      return joined;
+    }
+  }
+
+  // identifies identical requests
+  private static final class Key {
+    private final String path;
+    private final @Nullable Map<String, String> query;
+
+    private Key(@NotNull Request request) {
+      this.path = checkNotNull(request.path());
+      this.query = request.query();
+    }
+
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (o == null || getClass() != o.getClass()) return false;
+      Key key = (Key) o;
+      return path.equals(key.path) && Objects.equals(query, key.query);
+    }
+
+    @Override public int hashCode() {
+      return Objects.hash(path, query);
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  public static @NotNull CoalescingRemote create(@NotNull Remote delegate) {
+    return create(delegate, ForkJoinPool.commonPool());
+  }
+
+  public static @NotNull CoalescingRemote create(
+      @NotNull Remote delegate, @NotNull Executor executor) {
+    return new CoalescingRemote(delegate, executor);
+  }
+}
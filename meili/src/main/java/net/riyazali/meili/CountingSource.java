@@ -0,0 +1,390 @@
+package net.riyazali.meili;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ByteString;
+import okio.ForwardingSource;
+import okio.Okio;
+import okio.Options;
+import okio.Sink;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// BufferedSource view that counts the bytes consumed off another BufferedSource
+//
+// It has no buffer of it's own: bytes are pulled into the source's buffer (through it's non
+// consuming methods) and consumed straight off that buffer, so callers reading the buffer directly
+// still share it with the source. Consumed bytes are tallied from the change in the buffer's size
+// between the pulls, which also covers whatever callers consume from the buffer themselves.
+final class CountingSource implements BufferedSource {
+
+  private final BufferedSource source;
+  private final Buffer buffer;
+
+  // number of bytes consumed up to the last sync, and size of the buffer right after it
+  private long count;
+  private long size;
+
+  CountingSource(@NotNull BufferedSource source) {
+    this.source = checkNotNull(source);
+    this.buffer = source.getBuffer();
+    this.size = buffer.size();
+  }
+
+  /* returns the number of bytes consumed so far */
+  long count() {
+    sync();
+    return count;
+  }
+
+  // tally the bytes consumed off the buffer since the last sync
+  private void sync() {
+    count += size - buffer.size();
+    size = buffer.size();
+  }
+
+  // pull at least n bytes into the buffer; returns false if the source is exhausted before that
+  private boolean pull(long n) throws IOException {
+    sync();
+    try {
+      return source.request(n);
+    } finally {
+      size = buffer.size();
+    }
+  }
+
+  // pull at least n bytes into the buffer; fails if the source is exhausted before that
+  private void ensure(long n) throws IOException {
+    if (!pull(n)) {
+      throw new EOFException();
+    }
+  }
+
+  @SuppressWarnings("deprecation")
+  @Override public @NotNull Buffer buffer() {
+    return buffer;
+  }
+
+  @Override public @NotNull Buffer getBuffer() {
+    return buffer;
+  }
+
+  @Override public boolean exhausted() throws IOException {
+    return !pull(1);
+  }
+
+  @Override public void require(long byteCount) throws IOException {
+    ensure(byteCount);
+  }
+
+  @Override public boolean request(long byteCount) throws IOException {
+    return pull(byteCount);
+  }
+
+  @Override public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+    if (!pull(1)) {
+      return -1;
+    }
+    return buffer.read(sink, Math.min(byteCount, buffer.size()));
+  }
+
+  @Override public int read(@NotNull ByteBuffer sink) throws IOException {
+    if (!pull(1)) {
+      return -1;
+    }
+    return buffer.read(sink);
+  }
+
+  @Override public byte readByte() throws IOException {
+    ensure(1);
+    return buffer.readByte();
+  }
+
+  @Override public short readShort() throws IOException {
+    ensure(2);
+    return buffer.readShort();
+  }
+
+  @Override public short readShortLe() throws IOException {
+    ensure(2);
+    return buffer.readShortLe();
+  }
+
+  @Override public int readInt() throws IOException {
+    ensure(4);
+    return buffer.readInt();
+  }
+
+  @Override public int readIntLe() throws IOException {
+    ensure(4);
+    return buffer.readIntLe();
+  }
+
+  @Override public long readLong() throws IOException {
+    ensure(8);
+    return buffer.readLong();
+  }
+
+  @Override public long readLongLe() throws IOException {
+    ensure(8);
+    return buffer.readLongLe();
+  }
+
+  @Override public long readDecimalLong() throws IOException {
+    ensure(1);
+    for (long pos = 0; pull(pos + 1); pos++) {
+      byte b = buffer.getByte(pos);
+      if ((b < '0' || b > '9') && (pos != 0 || b != '-')) {
+        break; // the buffer reports malformed numbers
+      }
+    }
+    return buffer.readDecimalLong();
+  }
+
+  @Override public long readHexadecimalUnsignedLong() throws IOException {
+    ensure(1);
+    for (long pos = 0; pull(pos + 1); pos++) {
+      byte b = buffer.getByte(pos);
+      if ((b < '0' || b > '9') && (b < 'a' || b > 'f') && (b < 'A' || b > 'F')) {
+        break; // the buffer reports malformed numbers
+      }
+    }
+    return buffer.readHexadecimalUnsignedLong();
+  }
+
+  @Override public void skip(long byteCount) throws IOException {
+    while (byteCount > 0) {
+      ensure(1);
+      long n = Math.min(byteCount, buffer.size());
+      buffer.skip(n);
+      byteCount -= n;
+    }
+  }
+
+  @Override public @NotNull ByteString readByteString() throws IOException {
+    pull(Long.MAX_VALUE);
+    return buffer.readByteString();
+  }
+
+  @Override public @NotNull ByteString readByteString(long byteCount) throws IOException {
+    ensure(byteCount);
+    return buffer.readByteString(byteCount);
+  }
+
+  @Override public int select(@NotNull Options options) throws IOException {
+    sync();
+    int index = source.select(options);
+    if (index != -1) {
+      count += options.get(index).size(); // consumed by the source itself
+    }
+    size = buffer.size();
+    return index;
+  }
+
+  @Override public @NotNull byte[] readByteArray() throws IOException {
+    pull(Long.MAX_VALUE);
+    return buffer.readByteArray();
+  }
+
+  @Override public @NotNull byte[] readByteArray(long byteCount) throws IOException {
+    ensure(byteCount);
+    return buffer.readByteArray(byteCount);
+  }
+
+  @Override public int read(@NotNull byte[] sink) throws IOException {
+    return read(sink, 0, sink.length);
+  }
+
+  @Override public void readFully(@NotNull byte[] sink) throws IOException {
+    ensure(sink.length);
+    buffer.readFully(sink);
+  }
+
+  @Override public int read(@NotNull byte[] sink, int offset, int byteCount) throws IOException {
+    if (!pull(1)) {
+      return -1;
+    }
+    return buffer.read(sink, offset, byteCount);
+  }
+
+  @Override public void readFully(@NotNull Buffer sink, long byteCount) throws IOException {
+    ensure(byteCount);
+    buffer.readFully(sink, byteCount);
+  }
+
+  @Override public long readAll(@NotNull Sink sink) throws IOException {
+    long total = 0;
+    while (pull(1)) { // hands over a chunk at a time, like the source would
+      long n = buffer.size();
+      total += n;
+      sink.write(buffer, n);
+    }
+    return total;
+  }
+
+  @Override public @NotNull String readUtf8() throws IOException {
+    pull(Long.MAX_VALUE);
+    return buffer.readUtf8();
+  }
+
+  @Override public @NotNull String readUtf8(long byteCount) throws IOException {
+    ensure(byteCount);
+    return buffer.readUtf8(byteCount);
+  }
+
+  @Override public String readUtf8Line() throws IOException {
+    indexOf((byte) '\n'); // pulls till the end of the line (or of the source)
+    return buffer.readUtf8Line();
+  }
+
+  @Override public @NotNull String readUtf8LineStrict() throws IOException {
+    return readUtf8LineStrict(Long.MAX_VALUE);
+  }
+
+  @Override public @NotNull String readUtf8LineStrict(long limit) throws IOException {
+    long scan = limit == Long.MAX_VALUE ? Long.MAX_VALUE : limit + 1;
+    if (indexOf((byte) '\n', 0, scan) == -1 && scan != Long.MAX_VALUE) {
+      pull(scan + 1); // the line might end with a \r\n right at the limit
+    }
+    return buffer.readUtf8LineStrict(limit);
+  }
+
+  @Override public int readUtf8CodePoint() throws IOException {
+    ensure(1);
+    byte b = buffer.getByte(0);
+    if ((b & 0xe0) == 0xc0) {
+      ensure(2);
+    } else if ((b & 0xf0) == 0xe0) {
+      ensure(3);
+    } else if ((b & 0xf8) == 0xf0) {
+      ensure(4);
+    }
+    return buffer.readUtf8CodePoint();
+  }
+
+  @Override public @NotNull String readString(@NotNull Charset charset) throws IOException {
+    pull(Long.MAX_VALUE);
+    return buffer.readString(charset);
+  }
+
+  @Override public @NotNull String readString(long byteCount, @NotNull Charset charset)
+      throws IOException {
+    ensure(byteCount);
+    return buffer.readString(byteCount, charset);
+  }
+
+  @Override public long indexOf(byte b) throws IOException {
+    return indexOf(b, 0, Long.MAX_VALUE);
+  }
+
+  @Override public long indexOf(byte b, long fromIndex) throws IOException {
+    return indexOf(b, fromIndex, Long.MAX_VALUE);
+  }
+
+  @Override public long indexOf(byte b, long fromIndex, long toIndex) throws IOException {
+    sync();
+    try {
+      return source.indexOf(b, fromIndex, toIndex);
+    } finally {
+      size = buffer.size();
+    }
+  }
+
+  @Override public long indexOf(@NotNull ByteString bytes) throws IOException {
+    return indexOf(bytes, 0);
+  }
+
+  @Override public long indexOf(@NotNull ByteString bytes, long fromIndex) throws IOException {
+    sync();
+    try {
+      return source.indexOf(bytes, fromIndex);
+    } finally {
+      size = buffer.size();
+    }
+  }
+
+  @Override public long indexOfElement(@NotNull ByteString targetBytes) throws IOException {
+    return indexOfElement(targetBytes, 0);
+  }
+
+  @Override public long indexOfElement(@NotNull ByteString targetBytes, long fromIndex)
+      throws IOException {
+    sync();
+    try {
+      return source.indexOfElement(targetBytes, fromIndex);
+    } finally {
+      size = buffer.size();
+    }
+  }
+
+  @Override public boolean rangeEquals(long offset, @NotNull ByteString bytes) throws IOException {
+    return rangeEquals(offset, bytes, 0, bytes.size());
+  }
+
+  @Override public boolean rangeEquals(
+      long offset, @NotNull ByteString bytes, int bytesOffset, int byteCount) throws IOException {
+    sync();
+    try {
+      return source.rangeEquals(offset, bytes, bytesOffset, byteCount);
+    } finally {
+      size = buffer.size();
+    }
+  }
+
+  @Override public @NotNull BufferedSource peek() {
+    // reading ahead pulls into the buffer too, so it must be accounted for like any other pull
+    return Okio.buffer(new ForwardingSource(source.peek()) {
+      @Override public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+        sync();
+        try {
+          return super.read(sink, byteCount);
+        } finally {
+          size = buffer.size();
+        }
+      }
+    });
+  }
+
+  @Override public @NotNull InputStream inputStream() {
+    return new InputStream() {
+      @Override public int read() throws IOException {
+        return pull(1) ? buffer.readByte() & 0xff : -1;
+      }
+
+      @Override public int read(@NotNull byte[] b, int off, int len) throws IOException {
+        return CountingSource.this.read(b, off, len);
+      }
+
+      @Override public int available() {
+        return (int) Math.min(buffer.size(), Integer.MAX_VALUE);
+      }
+
+      @Override public void close() throws IOException {
+        CountingSource.this.close();
+      }
+    };
+  }
+
+  @Override public @NotNull Timeout timeout() {
+    return source.timeout();
+  }
+
+  @Override public boolean isOpen() {
+    return source.isOpen();
+  }
+
+  @Override public void close() throws IOException {
+    source.close();
+  }
+
+  @Override public String toString() {
+    return "counting(" + source + ")";
+  }
+}
@@ -0,0 +1,140 @@
+package net.riyazali.meili;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+import static net.riyazali.meili.Precondition.checkState;
+
+/**
+ * Cursor iterates over an entire result set, fetching it page by page.
+ *
+ * <p>
+ * While a page is being consumed the cursor keeps fetching the following pages in the background,
+ * with at most {@code prefetch} pages fetched ahead of the consumer. Iteration stops at the first
+ * page that contains fewer records than the configured limit, or once the total number of hits
+ * reported by a {@linkplain SearchPage search page} is reached.
+ *
+ * <p>
+ * Like a {@linkplain java.nio.file.DirectoryStream directory stream} a cursor can only be iterated
+ * once, and should be closed if it isn't iterated till the end to cancel any in-flight request.
+ * Instances of this class are not thread-safe.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @see Index#cursor(PageConfig, int, java.util.concurrent.Executor)
+ * @see Index#searchCursor(SearchConfig, int, java.util.concurrent.Executor)
+ */
+public final class Cursor<T> implements Iterable<T>, AutoCloseable {
+
+  // fetches the page beginning at the given offset
+  private final IntFunction<CompletableFuture<? extends Page<T>>> fetcher;
+
+  // max number of records in a page
+  private final int limit;
+
+  // max number of pages fetched ahead of the consumer
+  private final int prefetch;
+
+  // pages requested but not yet consumed, in order of their offsets
+  private final Deque<CompletableFuture<? extends Page<T>>> pages = new ArrayDeque<>();
+
+  // offset of the next page to request
+  private long offset;
+
+  // total number of records, if known
+  private long total = Long.MAX_VALUE;
+
+  // set once we know there aren't any more pages to request
+  private boolean exhausted;
+
+  // set once the first page has been consumed
+  private boolean started;
+
+  // set once iterator() has been called
+  private boolean iterated;
+
+  // iterator over the page currently being consumed
+  private Iterator<T> current = Collections.emptyIterator();
+
+  Cursor(@NotNull PageConfig config, int prefetch,
+      @NotNull IntFunction<CompletableFuture<? extends Page<T>>> fetcher) {
+    checkArgument(prefetch > 0 && config.limit() > 0);
+    this.fetcher = checkNotNull(fetcher);
+    this.limit = config.limit();
+    this.offset = config.offset();
+    this.prefetch = prefetch;
+  }
+
+  @NotNull @Override public Iterator<T> iterator() {
+    checkState(!iterated);
+    iterated = true;
+
+    return new Iterator<T>() {
+      @Override public boolean hasNext() {
+        return advance();
+      }
+
+      @Override public T next() {
+        if (!advance()) {
+          throw new NoSuchElementException();
+        }
+        return current.next();
+      }
+    };
+  }
+
+  /**
+   * Cancel all in-flight requests and stop the iteration
+   */
+  @Override public void close() {
+    exhausted = true;
+    current = Collections.emptyIterator();
+    for (CompletableFuture<? extends Page<T>> page : pages) {
+      page.cancel(true);
+    }
+    pages.clear();
+  }
+
+  // moves on to the next page (waiting for it if required) when the current one is consumed
+  private boolean advance() {
+    while (!current.hasNext()) {
+      fill();
+      CompletableFuture<? extends Page<T>> next = pages.poll();
+      if (next == null) {
+        return false;
+      }
+
+      Page<T> page = next.join();
+      started = true;
+      if (page instanceof SearchPage) {
+        total = ((SearchPage<T>) page).count();
+      }
+
+      if (page.results().size() < limit) {
+        close(); // no more pages after this one; cancel any speculative request
+      }
+
+      // request the following pages now, so they are fetched while this one is consumed
+      fill();
+      current = page.iterator();
+    }
+    return true;
+  }
+
+  // requests more pages until we have enough of them in flight
+  private void fill() {
+    // until the first page arrives we don't know whether there are more pages to fetch at all
+    int max = started ? prefetch : 1;
+    while (!exhausted && pages.size() < max && offset < total) {
+      pages.add(fetcher.apply((int) offset));
+      offset += limit;
+    }
+  }
+}
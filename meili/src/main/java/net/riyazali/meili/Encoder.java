@@ -1,8 +1,16 @@
 package net.riyazali.meili;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import okio.BufferedSink;
 import okio.Source;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
 
 /**
  * Encoder represents a service responsible to encode/decode java objects to JSON representation.
@@ -19,6 +27,21 @@ public interface Encoder {
    */
   @NotNull <T> Source encode(@NotNull T object);
 
+  /**
+   * Encode the given object of type T into it's JSON representation writing it directly into the
+   * given sink.
+   *
+   * <p>
+   * Implementations should override this method to stream the encoded bytes without building an
+   * intermediate representation of the whole payload in memory.
+   *
+   * @param object object to encode
+   * @param sink   sink to write the encoded bytes into
+   */
+  default <T> void encode(@NotNull T object, @NotNull BufferedSink sink) throws IOException {
+    sink.writeAll(encode(object));
+  }
+
   /**
    * Decode decodes the given json string and returns an object of type T
    *
@@ -26,4 +49,77 @@ public interface Encoder {
    * @return object of type T
    */
   @NotNull <T> T decode(@NotNull Source json, @NotNull Type type);
+
+  /**
+   * Decode the elements of a json array one at a time, handing over each element to the consumer
+   * as soon as it is decoded.
+   *
+   * <p>
+   * Implementations should override this method to decode the elements straight off the source
+   * without materializing the whole array in memory. The default implementation decodes the array
+   * into a list first.
+   *
+   * @param json        json to decode
+   * @param field       name of the field containing the array if json is an object, or {@code
+   *                    null} if json is the array itself
+   * @param elementType type of the array's elements
+   * @param consumer    consumer to hand over the decoded elements to
+   */
+  default <T> void decodeEach(@NotNull Source json, @Nullable String field,
+      @NotNull Type elementType, @NotNull Consumer<? super T> consumer) {
+    Type listType = getParameterized(null, List.class, elementType);
+    List<T> elements;
+    if (field == null) {
+      elements = decode(json, listType);
+    } else {
+      Map<String, Object> object =
+          decode(json, getParameterized(null, Map.class, String.class, Object.class));
+      Object value = object.get(field);
+      if (value == null) {
+        return;
+      }
+      elements = decode(encode(value), listType);
+    }
+    elements.forEach(consumer);
+  }
+
+  /**
+   * Returns a decoder of values of the given type, which can be used any number of times (and
+   * concurrently) to decode such values.
+   *
+   * <p>
+   * Implementations should override this method to resolve whatever they need to decode values of
+   * the type (such as a type adapter) once, here, rather than on every call. The default
+   * implementation hands over every call to {@linkplain #decode(Source, Type)}.
+   *
+   * @param type type of the values to decode
+   */
+  default <T> @NotNull TypeDecoder<T> decoder(@NotNull Type type) {
+    return json -> decode(json, type);
+  }
+
+  /**
+   * Returns an encoder of values of the given type, which can be used any number of times (and
+   * concurrently) to encode such values.
+   *
+   * <p>
+   * Unlike {@linkplain #encode(Object, BufferedSink)}, which encodes an object as it's runtime
+   * class, values are encoded as the given type. The default implementation hands over every call
+   * to {@linkplain #encode(Object, BufferedSink)}.
+   *
+   * @param type type of the values to encode
+   */
+  default <T> @NotNull TypeEncoder<T> encoder(@NotNull Type type) {
+    return this::encode;
+  }
+
+  /* TypeDecoder decodes json into values of a single type; see Encoder#decoder(Type) */
+  @FunctionalInterface interface TypeDecoder<T> {
+    @NotNull T decode(@NotNull Source json);
+  }
+
+  /* TypeEncoder encodes values of a single type into json; see Encoder#encoder(Type) */
+  @FunctionalInterface interface TypeEncoder<T> {
+    void encode(@NotNull T value, @NotNull BufferedSink sink) throws IOException;
+  }
 }
@@ -0,0 +1,54 @@
+package net.riyazali.meili;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import net.riyazali.meili.Remote.Response;
+import org.jetbrains.annotations.NotNull;
+
+// Handy utility class to work with futures returned by an AsyncRemote
+final class Futures {
+  private Futures() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  /* ResponseHandler converts a response into a value of type R */
+  @FunctionalInterface interface ResponseHandler<R> {
+    R handle(@NotNull Response response) throws Exception;
+  }
+
+  /**
+   * Handle the response (once available) on the given executor and close it afterwards.
+   *
+   * <p>
+   * Cancelling the returned future cancels the in-flight call, and closes the response if it has
+   * already arrived but was never handed over to the handler.
+   */
+  static <R> @NotNull CompletableFuture<R> handle(@NotNull CompletableFuture<Response> call,
+      @NotNull Executor executor, @NotNull ResponseHandler<R> handler) {
+    CompletableFuture<R> result = call.thenApplyAsync(response -> {
+      try (Response r = response) {
+        return handler.handle(r);
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+
+    result.whenComplete((r, t) -> {
+      if (result.isCancelled() && !call.cancel(true)) {
+        call.thenAccept(Remotes::closeQuietly);
+      }
+    });
+
+    return result;
+  }
+
+  /* returns a future that has already been completed exceptionally with the given throwable */
+  static <R> @NotNull CompletableFuture<R> failed(@NotNull Throwable throwable) {
+    CompletableFuture<R> future = new CompletableFuture<>();
+    future.completeExceptionally(throwable);
+    return future;
+  }
+}
@@ -0,0 +1,306 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} decorator that hedges slow reads.
+ *
+ * <p>
+ * When the response to a GET request hasn't arrived within the hedge delay, a duplicate request is
+ * sent and whichever response arrives first is handed over; the other call is cancelled (or it's
+ * response closed, if it has already arrived). The delay is either fixed, or follows a percentile
+ * of the recently observed response times (never going below the fixed delay). All other methods,
+ * which aren't safe to duplicate, are passed through as-is.
+ *
+ * <p>
+ * Hedges are paid for out of a budget, which grows by the configured percentage of a request with
+ * every read, so that hedging never adds more than that percentage of extra reads. Duplicates are
+ * sent through the same delegate, so to have them land on another node wrap a {@linkplain
+ * LoadBalancingRemote} which routes them away from the node that is still busy with the original.
+ *
+ * <p>
+ * The remote should be {@linkplain #close() closed} once done with, to stop it's scheduler.
+ * Instances of this class are thread-safe and can be safely used concurrently.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class HedgingRemote implements AsyncRemote, AutoCloseable {
+
+  // number of response times after which the tracked percentile is recomputed
+  private static final int WINDOW = 1024;
+
+  private final Remote delegate;
+  private final AsyncRemote async;
+
+  private final long minDelay;
+  private final double percentile;
+
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+
+  // current hedge delay and the response times observed since it was last computed
+  private volatile long delay;
+  private final AtomicReference<Histogram> window = new AtomicReference<>(new Histogram());
+
+  // budget to spend on hedges; null if hedging is disabled
+  private final @Nullable Budget budget;
+
+  // counters
+  private final LongAdder reads = new LongAdder();
+  private final LongAdder hedged = new LongAdder();
+  private final LongAdder won = new LongAdder();
+  private final LongAdder denied = new LongAdder();
+
+  /**
+   * Create a new hedging remote
+   *
+   * @param delegate   remote to send the requests to
+   * @param delay      time to wait for a response before hedging; defaults to 50 milliseconds. If
+   *                   a percentile is given this is the smallest delay used.
+   * @param percentile percentile of the observed response times to use as the delay (say 95);
+   *                   defaults to zero, which always uses the fixed delay
+   * @param budget     max extra reads sent as hedges, in percent of all reads; defaults to 5, zero
+   *                   disables hedging
+   * @param scheduler  scheduler to time the hedges on; defaults to a single daemon thread owned by
+   *                   the remote
+   * @param executor   executor to run a blocking delegate on; defaults to the common pool
+   */
+  @Builder private HedgingRemote(@NotNull Remote delegate, @Nullable Duration delay,
+      double percentile, double budget, @Nullable ScheduledExecutorService scheduler,
+      @Nullable Executor executor) {
+    checkArgument(percentile >= 0 && percentile < 100 && budget >= 0 && budget <= 100);
+    this.delegate = checkNotNull(delegate);
+    this.async = AsyncRemote.adapt(delegate,
+        executor != null ? executor : ForkJoinPool.commonPool());
+
+    this.minDelay = (delay != null ? delay : Duration.ofMillis(50)).toNanos();
+    this.delay = this.minDelay;
+    this.percentile = percentile;
+    this.budget = budget > 0 ? new Budget(budget) : null;
+
+    this.ownScheduler = scheduler == null;
+    this.scheduler = scheduler != null ? scheduler : Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "meili-hedge");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  // builder with the defaults of primitive parameters filled in; lombok generates the rest
+  public static final class HedgingRemoteBuilder {
+    private double budget = 5;
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    if (!"GET".equals(method)) {
+      return Remotes.dispatch(delegate, method, request);
+    }
+    if (budget == null) {
+      reads.increment();
+      return Remotes.dispatch(delegate, method, request); // nothing to hedge; stay on this thread
+    }
+    return await(executeAsync(method, request));
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    if (!"GET".equals(method)) {
+      return async.executeAsync(method, request);
+    }
+
+    reads.increment();
+    Budget budget = this.budget;
+    if (budget == null) {
+      return async.executeAsync(method, request);
+    }
+    budget.earn();
+
+    long start = System.nanoTime();
+    Hedge hedge = new Hedge(start);
+    hedge.first = async.executeAsync(method, request);
+    hedge.first.whenComplete((response, throwable) -> hedge.done(response, throwable, false));
+
+    if (hedge.result.isDone()) {
+      return hedge.result;
+    }
+
+    hedge.timer = scheduler.schedule(() -> {
+      if (hedge.result.isDone()) {
+        return;
+      }
+      if (!budget.spend()) {
+        denied.increment();
+        return;
+      }
+
+      hedged.increment();
+      hedge.pending.incrementAndGet();
+      hedge.second = async.executeAsync(method, request);
+      hedge.second.whenComplete((response, throwable) -> hedge.done(response, throwable, true));
+    }, delay, TimeUnit.NANOSECONDS);
+
+    // callers cancelling their future cancel all the calls made on their behalf
+    hedge.result.whenComplete((response, throwable) -> {
+      if (hedge.result.isCancelled()) {
+        hedge.cancel();
+      }
+    });
+
+    return hedge.result;
+  }
+
+  /**
+   * Returns a snapshot of the remote's counters
+   */
+  public @NotNull Stats stats() {
+    return new Stats(reads.sum(), hedged.sum(), won.sum(), denied.sum(), Duration.ofNanos(delay));
+  }
+
+  /**
+   * Stop the scheduler, if it's owned by the remote. The delegate is not closed.
+   */
+  @Override public void close() {
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  // record the time it took for a response to arrive, recomputing the delay every so often
+  private void observed(long nanos) {
+    if (percentile == 0) {
+      return;
+    }
+
+    Histogram window = this.window.get();
+    window.record(nanos);
+    if (window.count() >= WINDOW && this.window.compareAndSet(window, new Histogram())) {
+      this.delay = Math.max(minDelay, window.percentile(percentile));
+    }
+  }
+
+  // wait for the call to complete
+  private static @NotNull Response await(
+      @NotNull CompletableFuture<Response> call) throws IOException {
+    try {
+      return call.get();
+    } catch (InterruptedException e) {
+      call.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException ?
+          e.getCause().getCause() : e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+  // state of a single (possibly hedged) read
+  private final class Hedge {
+    private final long start;
+    private final CompletableFuture<Response> result = new CompletableFuture<>();
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    // set once a call has succeeded
+    private final AtomicBoolean settled = new AtomicBoolean();
+
+    private volatile CompletableFuture<Response> first;
+    private volatile @Nullable CompletableFuture<Response> second;
+    private volatile @Nullable ScheduledFuture<?> timer;
+
+    private Hedge(long start) {
+      this.start = start;
+    }
+
+    // called once either call completes
+    private void done(@Nullable Response response, @Nullable Throwable throwable, boolean hedge) {
+      int remaining = pending.decrementAndGet();
+      if (throwable != null) {
+        // fail only once there's no other call that might still succeed
+        if (remaining == 0) {
+          result.completeExceptionally(throwable);
+        }
+        return;
+      }
+
+      if (!settled.compareAndSet(false, true)) {
+        Remotes.closeQuietly(checkNotNull(response)); // lost the race
+        return;
+      }
+
+      // counted before the result is handed over, so callers see them right away
+      observed(System.nanoTime() - start);
+      if (hedge) {
+        won.increment();
+      }
+      if (!result.complete(response)) {
+        Remotes.closeQuietly(checkNotNull(response)); // caller cancelled in the meantime
+      }
+      cancel();
+    }
+
+    // cancel the timer and all the calls that are still in flight
+    private void cancel() {
+      ScheduledFuture<?> timer = this.timer;
+      if (timer != null) {
+        timer.cancel(false);
+      }
+      cancel(first);
+      cancel(second);
+    }
+
+    private void cancel(@Nullable CompletableFuture<Response> call) {
+      if (call != null && !call.isDone()) {
+        call.cancel(true);
+      }
+    }
+  }
+
+  /* Stats represents a snapshot of the remote's counters */
+  @Accessors(fluent = true)
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @ToString @Getter public static final class Stats {
+    // number of reads
+    private final long reads;
+    // number of hedges sent
+    private final long hedged;
+    // number of hedges whose response arrived first
+    private final long won;
+    // number of hedges not sent for lack of budget
+    private final long denied;
+    // current hedge delay
+    private final Duration delay;
+  }
+}
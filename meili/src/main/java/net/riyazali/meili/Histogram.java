@@ -0,0 +1,128 @@
+package net.riyazali.meili;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+
+/**
+ * Histogram records the distribution of non-negative values (such as latencies in nanoseconds) in
+ * log-linear buckets.
+ *
+ * <p>
+ * Every power of two range is divided into 32 linear sub-buckets, so values are recorded with a
+ * relative error of at most ~3%, across the whole range of {@code long}. Recording a value is
+ * lock-free and doesn't allocate. Reads are not atomic with respect to concurrent writes, so the
+ * statistics of a histogram that is being written to are only approximately consistent.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class Histogram {
+
+  // number of bits of precision kept for every value
+  private static final int BITS = 5;
+  private static final int SUB_BUCKETS = 1 << BITS;
+
+  // values below SUB_BUCKETS are recorded exactly, rest go into (msb, sub-bucket) pairs
+  private static final int BUCKETS = (Long.SIZE - BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Record the given value; negative values are recorded as zero
+   */
+  public void record(long value) {
+    value = Math.max(0, value);
+    counts.incrementAndGet(index(value));
+    count.increment();
+    sum.add(value);
+    max.accumulate(value);
+  }
+
+  /**
+   * Returns the number of recorded values
+   */
+  public long count() {
+    return count.sum();
+  }
+
+  /**
+   * Returns the sum of recorded values
+   */
+  public long sum() {
+    return sum.sum();
+  }
+
+  /**
+   * Returns the largest recorded value
+   */
+  public long max() {
+    return max.get();
+  }
+
+  /**
+   * Returns the mean of recorded values
+   */
+  public double mean() {
+    long count = count();
+    return count == 0 ? 0 : (double) sum() / count;
+  }
+
+  /**
+   * Returns (an upper bound of) the value at the given percentile
+   *
+   * @param percentile percentile in the range [0, 100]
+   */
+  public long percentile(double percentile) {
+    checkArgument(percentile >= 0 && percentile <= 100);
+
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(highest(i), max());
+      }
+    }
+    return max();
+  }
+
+  @Override public String toString() {
+    return String.format("Histogram(count=%d, mean=%.1f, p50=%d, p99=%d, max=%d)",
+        count(), mean(), percentile(50), percentile(99), max());
+  }
+
+  // returns the bucket the value is recorded in
+  static int index(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+
+    int msb = 63 - Long.numberOfLeadingZeros(value);
+    int sub = (int) (value >>> (msb - BITS)) - SUB_BUCKETS;
+    return (msb - BITS + 1) * SUB_BUCKETS + sub;
+  }
+
+  // returns the largest value recorded in the given bucket
+  static long highest(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+
+    int msb = index / SUB_BUCKETS + BITS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (msb - BITS);
+    return lowest + (1L << (msb - BITS)) - 1;
+  }
+}
@@ -0,0 +1,150 @@
+package net.riyazali.meili;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@linkplain MetricsSink} that keeps {@linkplain Histogram histograms} of all the measurements in
+ * memory, per {@linkplain Operation operation} where applicable.
+ *
+ * <p>
+ * Recording a measurement is lock-free and doesn't allocate. Instances of this class are thread-safe
+ * and can be shared by many remotes, encoders and indexes.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class HistogramMetricsSink implements MetricsSink {
+
+  // highest HTTP status tracked individually; others are counted under zero
+  private static final int MAX_STATUS = 599;
+
+  // measurements by operation; indexed by the operation's ordinal
+  private final PerOperation[] operations = new PerOperation[Operation.values().length];
+
+  private final Histogram encodeTime = new Histogram();
+  private final Histogram decodeTime = new Histogram();
+  private final Histogram serverSearchTime = new Histogram();
+  private final Histogram clientSearchTime = new Histogram();
+
+  private HistogramMetricsSink() {
+    for (int i = 0; i < operations.length; i++) {
+      operations[i] = new PerOperation();
+    }
+  }
+
+  @Override public void call(@NotNull Operation operation, int status, long nanos,
+      long requestBytes, long responseBytes) {
+    PerOperation op = operations[operation.ordinal()];
+    op.latency.record(nanos);
+    op.requestBytes.record(requestBytes);
+    op.responseBytes.record(responseBytes);
+    op.statuses.incrementAndGet(status > 0 && status <= MAX_STATUS ? status : 0);
+  }
+
+  @Override public void failure(@NotNull Operation operation, long nanos) {
+    operations[operation.ordinal()].failures.increment();
+  }
+
+  @Override public void encoded(long nanos) {
+    encodeTime.record(nanos);
+  }
+
+  @Override public void decoded(long nanos) {
+    decodeTime.record(nanos);
+  }
+
+  @Override public void searched(long serverNanos, long clientNanos) {
+    serverSearchTime.record(serverNanos);
+    clientSearchTime.record(clientNanos);
+  }
+
+  /**
+   * Returns the latencies (in nanoseconds) of the given operation
+   */
+  public @NotNull Histogram latency(@NotNull Operation operation) {
+    return operations[operation.ordinal()].latency;
+  }
+
+  /**
+   * Returns the request body sizes (in bytes) of the given operation
+   */
+  public @NotNull Histogram requestBytes(@NotNull Operation operation) {
+    return operations[operation.ordinal()].requestBytes;
+  }
+
+  /**
+   * Returns the response body sizes (in bytes) of the given operation
+   */
+  public @NotNull Histogram responseBytes(@NotNull Operation operation) {
+    return operations[operation.ordinal()].responseBytes;
+  }
+
+  /**
+   * Returns the number of responses of the given operation by HTTP status
+   */
+  public @NotNull Map<Integer, Long> statuses(@NotNull Operation operation) {
+    AtomicLongArray statuses = operations[operation.ordinal()].statuses;
+    Map<Integer, Long> result = new TreeMap<>();
+    for (int i = 0; i < statuses.length(); i++) {
+      long count = statuses.get(i);
+      if (count > 0) {
+        result.put(i, count);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Returns the number of calls of the given operation which failed without a response
+   */
+  public long failures(@NotNull Operation operation) {
+    return operations[operation.ordinal()].failures.sum();
+  }
+
+  /**
+   * Returns the time (in nanoseconds) taken to encode objects
+   */
+  public @NotNull Histogram encodeTime() {
+    return encodeTime;
+  }
+
+  /**
+   * Returns the time (in nanoseconds) taken to decode objects
+   */
+  public @NotNull Histogram decodeTime() {
+    return decodeTime;
+  }
+
+  /**
+   * Returns the processing time (in nanoseconds) of searches as reported by the server
+   */
+  public @NotNull Histogram serverSearchTime() {
+    return serverSearchTime;
+  }
+
+  /**
+   * Returns the time (in nanoseconds) of searches as observed by the client
+   */
+  public @NotNull Histogram clientSearchTime() {
+    return clientSearchTime;
+  }
+
+  // measurements of a single operation
+  private static final class PerOperation {
+    private final Histogram latency = new Histogram();
+    private final Histogram requestBytes = new Histogram();
+    private final Histogram responseBytes = new Histogram();
+    private final AtomicLongArray statuses = new AtomicLongArray(MAX_STATUS + 1);
+    private final LongAdder failures = new LongAdder();
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  public static @NotNull HistogramMetricsSink create() {
+    return new HistogramMetricsSink();
+  }
+}
@@ -0,0 +1,79 @@
+package net.riyazali.meili;
+
+import java.nio.charset.StandardCharsets;
+import okio.Buffer;
+import okio.ByteString;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Hit is an undecoded view over a single hit of a lazily decoded {@linkplain SearchPage}.
+ *
+ * <p>
+ * Fields of the hit can be read without binding the whole hit to the document class, which makes
+ * it cheap to, say, collect the ids of the hits or peek at a field before deciding whether the hit
+ * needs to be decoded at all.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @see SearchConfig#lazy()
+ */
+public final class Hit {
+
+  // the whole response the hit is part of, and the hit's bounds in it
+  private final byte[] json;
+  private final int start;
+  private final int end;
+
+  // name of the index's primary key
+  private final String primaryKey;
+
+  Hit(@NotNull byte[] json, int start, int end, @NotNull String primaryKey) {
+    this.json = json;
+    this.start = start;
+    this.end = end;
+    this.primaryKey = primaryKey;
+  }
+
+  /**
+   * Returns the value of the hit's primary key, or {@code null} if it has none
+   */
+  public @Nullable String id() {
+    return get(primaryKey);
+  }
+
+  /**
+   * Returns the value of a top-level field of the hit as text, without decoding the rest of the
+   * hit. Strings are un-escaped, other values are returned as they appear in the json.
+   *
+   * @param field name of the field
+   * @return the field's value, or {@code null} if the field is missing or is {@code null}
+   */
+  public @Nullable String get(@NotNull String field) {
+    byte[] name = field.getBytes(StandardCharsets.UTF_8);
+    int[] fields = JsonScanner.fields(json, start);
+    for (int i = 0; i < fields.length; i += 4) {
+      if (JsonScanner.matches(json, fields[i], fields[i + 1], name)) {
+        return json[fields[i + 2]] == 'n' ?
+            null : JsonScanner.text(json, fields[i + 2], fields[i + 3]);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Returns the hit's json, as sent by the api
+   */
+  public @NotNull ByteString json() {
+    return ByteString.of(json, start, end - start);
+  }
+
+  /* returns a source over the hit's json */
+  @NotNull Source source() {
+    return new Buffer().write(json, start, end - start);
+  }
+
+  @Override public String toString() {
+    return new String(json, start, end - start, StandardCharsets.UTF_8);
+  }
+}
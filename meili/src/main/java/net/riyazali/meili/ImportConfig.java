@@ -0,0 +1,41 @@
+package net.riyazali.meili;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * ImportConfig configures how pre-serialized documents are {@linkplain Index#importFile imported}
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+@Accessors(fluent = true)
+@Builder @Getter public class ImportConfig {
+
+  /* Format of the input */
+  @Builder.Default private final Format format = Format.JSON;
+
+  /* Max size (in bytes) of a single batch; applies to NDJSON input only */
+  @Builder.Default private final long maxBytes = 4 * 1024 * 1024;
+
+  /* Whether documents are partially updated (PUT) instead of being replaced (POST) */
+  @Builder.Default private final boolean partial = false;
+
+  /* Format represents the supported input formats */
+  public enum Format {
+    // a single json array of documents; sent as-is in a single request
+    JSON,
+    // one json document per line; sent in size-bounded batches
+    NDJSON
+  }
+
+  /**
+   * Returns the default import configuration
+   *
+   * @return ImportConfig with default values
+   */
+  public static @NotNull ImportConfig getDefault() {
+    return builder().build();
+  }
+}
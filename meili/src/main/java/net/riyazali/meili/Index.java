@@ -1,22 +1,53 @@
 package net.riyazali.meili;
 
-import java.lang.reflect.Field;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.Type;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 import lombok.experimental.Accessors;
+import net.riyazali.meili.Encoder.TypeDecoder;
+import net.riyazali.meili.Encoder.TypeEncoder;
+import net.riyazali.meili.Remote.Body;
 import net.riyazali.meili.Remote.Request;
 import net.riyazali.meili.Remote.Response;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
 import okio.Source;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import static net.riyazali.meili.Precondition.checkNotNull;
+import static net.riyazali.meili.utils.JsonUtils.writeScalar;
 import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
+import static net.riyazali.meili.utils.ReflectionUtils.getter;
 
 /**
  * Index class represents a single index in Meilisearch.
@@ -39,22 +70,79 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
 
   // external / provided service class references
   @ToString.Exclude
+  @Getter(AccessLevel.PACKAGE)
   @Setter(AccessLevel.PACKAGE)
   private transient Remote remote;
 
+  // whether write operations should fetch the update's status right after it is enqueued
+  // turn this off when tracking the updates using an UpdateTracker to save the extra round-trip
   @ToString.Exclude
-  @Setter(AccessLevel.PACKAGE)
+  @Getter @Setter
+  private transient volatile boolean refreshOnWrite = true;
+
+  // optional client-side cache for search results
+  // see: SearchCache for details
+  @ToString.Exclude
+  @Getter @Setter
+  @Nullable private transient volatile SearchCache cache;
+
+  // optional sink to report the server-reported and client-observed search times to
+  // see: MetricsSink for details
+  @ToString.Exclude
+  @Getter @Setter
+  @Nullable private transient volatile MetricsSink metrics;
+
+  @ToString.Exclude
+  @Getter(AccessLevel.PACKAGE)
   private transient Encoder encoder;
 
+  // decoders / encoders of the index's payloads, resolved once whenever the encoder is set
+  @ToString.Exclude private transient TypeDecoder<T> documentDecoder;
+  @ToString.Exclude private transient TypeDecoder<List<T>> documentsDecoder;
+  @ToString.Exclude private transient TypeDecoder<SearchPage.Response<T>> searchDecoder;
+  @ToString.Exclude private transient TypeEncoder<List<T>> documentsEncoder;
+
+  // decoders of the index's updates; also used by the updates themselves and the update tracker
+  @ToString.Exclude
+  @Getter(AccessLevel.PACKAGE)
+  private transient TypeDecoder<Update> updateDecoder;
+
+  @ToString.Exclude
+  @Getter(AccessLevel.PACKAGE)
+  private transient TypeDecoder<List<Update>> updatesDecoder;
+
   // type information of the document class
   @ToString.Exclude
   private transient Class<T> documentType;
 
+  // paths of the index's endpoints, computed once
+  @ToString.Exclude private final transient String path;
+  @ToString.Exclude private final transient String documentsPath;
+  @ToString.Exclude private final transient String searchPath;
+
+  // primary key getters of document classes; resolved once per class
+  private static final ClassValue<MethodHandle> PRIMARY_KEYS = new ClassValue<MethodHandle>() {
+    @Override protected MethodHandle computeValue(Class<?> type) {
+      return getter(type, type.getAnnotation(Document.class).primaryKey());
+    }
+  };
+
+  // size of the window in which files are memory-mapped during imports
+  private static final long MAP_WINDOW = 64 * 1024 * 1024;
+
+  // name of the stats' field holding the number of documents in the index
+  private static final byte[] NUMBER_OF_DOCUMENTS =
+      "numberOfDocuments".getBytes(StandardCharsets.UTF_8);
+
   // see: Index.from(...) method below for details
   private Index(String uid, String primaryKey, Class<T> documentType) {
     this.uid = checkNotNull(uid);
     this.primaryKey = checkNotNull(primaryKey);
     this.documentType = checkNotNull(documentType);
+
+    this.path = "/indexes/" + uid;
+    this.documentsPath = path + "/documents";
+    this.searchPath = path + "/search";
   }
 
   // some handy lifecycle operations
@@ -62,17 +150,31 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
 
   /* returns true if the index exists on meili server */
   boolean exists() throws Exception {
-    Request request = Request.builder().path(String.format("/indexes/%s", uid())).build();
+    Request request = Request.builder().path(path).build();
     try (Response response = remote.get(request)) {
       return response.status() != 404;
     }
   }
 
   void create() throws Exception {
-    Source json = encoder.encode(this);
+    Body json = json(this);
     remote.post(Request.builder().path("indexes").body(json).build()).close();
   }
 
+  /* asynchronous variant of exists() */
+  @NotNull CompletableFuture<Boolean> existsAsync(@NotNull Executor executor) {
+    Request request = Request.builder().path(path).build();
+    return Futures.handle(async(executor).getAsync(request), executor,
+        response -> response.status() != 404);
+  }
+
+  /* asynchronous variant of create() */
+  @NotNull CompletableFuture<Void> createAsync(@NotNull Executor executor) {
+    Body json = json(this);
+    Request request = Request.builder().path("indexes").body(json).build();
+    return Futures.handle(async(executor).postAsync(request), executor, response -> null);
+  }
+
   // Public API
   // ------- - - - - -
 
@@ -85,41 +187,214 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
    * @return the document instance if found else {@code null}
    */
   public @Nullable final T get(@NotNull String id) throws Exception {
-    Request request =
-        Request.builder().path(String.format("/indexes/%s/documents/%s", uid(), id)).build();
+    Request request = Request.builder().path(documentsPath + "/" + id).build();
 
     try (Response response = remote.get(request)) {
-      return response.status() == 200 ? encoder.decode(response.body(), documentType) : null;
+      return readDocument(response);
     }
   }
 
   /**
-   * All returns an iterable using which you can iterate over all the records in the index. It
-   * transparently handles the pagination details so that it doesn't load a (potentially) large
-   * dataset into memory at once.
+   * Asynchronously get a single document identified by it's primary key
+   *
+   * @param id       the document's primary key
+   * @param executor executor to decode the response on
+   * @return future that completes with the document instance if found else {@code null}
+   * @see #get(String)
+   */
+  public @NotNull final CompletableFuture<T> getAsync(
+      @NotNull String id, @NotNull Executor executor) {
+    Request request = Request.builder().path(documentsPath + "/" + id).build();
+
+    return Futures.handle(async(executor).getAsync(request), executor, this::readDocument);
+  }
+
+  /**
+   * Get a single document identified by it's primary key without decoding it. The caller owns the
+   * returned response and must close it; a missing document is reported with a 404 status.
+   *
+   * @param id the document's primary key
+   * @return the raw response
+   */
+  public @NotNull final Response getRaw(@NotNull String id) throws Exception {
+    return remote.get(Request.builder().path(documentsPath + "/" + id).build());
+  }
+
+  /**
+   * Get a single document identified by it's primary key and write the response's body, as-is, to
+   * the given sink. The sink is flushed but not closed.
+   *
+   * @param id   the document's primary key
+   * @param sink sink to write the body to
+   * @return the response's HTTP status
+   */
+  public final int getRaw(@NotNull String id, @NotNull Sink sink) throws Exception {
+    return transfer(getRaw(id), sink);
+  }
+
+  /**
+   * @see #getRaw(String, Sink)
+   */
+  public final int getRaw(@NotNull String id, @NotNull OutputStream out) throws Exception {
+    return getRaw(id, Okio.sink(out));
+  }
+
+  /**
+   * All returns the first page of records in the index.
    *
    * @return page with results
+   * @see #cursor(PageConfig, int, Executor) to iterate over all the records in the index
    */
   public @NotNull final Page<T> all() throws Exception {
     return all(PageConfig.getDefault());
   }
 
   /**
-   * All returns an iterable using which you can iterate over all the records in the index. It
-   * transparently handles the pagination details so that it doesn't load a (potentially) large
-   * dataset into memory at once.
+   * All returns a single page of records in the index, as described by the given config.
    *
    * @return page with results
+   * @see #cursor(PageConfig, int, Executor) to iterate over all the records in the index
    */
   public @NotNull final Page<T> all(@NotNull PageConfig config) throws Exception {
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/documents", uid())).query(config.map()).build();
+    Request request = Request.builder().path(documentsPath).query(config.map()).build();
 
     // execute request and return page
     try (Response response = remote.get(request)) {
-      List<T> docs = encoder.decode(response.body(),
-          getParameterized(null, List.class, documentType));
-      return new Page<>(docs, config);
+      return readPage(response, config);
+    }
+  }
+
+  /**
+   * Fetch a single page of records from the index without decoding them. The caller owns the
+   * returned response and must close it.
+   *
+   * @param config the page config
+   * @return the raw response
+   */
+  public @NotNull final Response allRaw(@NotNull PageConfig config) throws Exception {
+    return remote.get(Request.builder().path(documentsPath).query(config.map()).build());
+  }
+
+  /**
+   * Fetch a single page of records from the index and write the response's body, as-is, to the
+   * given sink. The sink is flushed but not closed.
+   *
+   * @param config the page config
+   * @param sink   sink to write the body to
+   * @return the response's HTTP status
+   */
+  public final int allRaw(@NotNull PageConfig config, @NotNull Sink sink) throws Exception {
+    return transfer(allRaw(config), sink);
+  }
+
+  /**
+   * @see #allRaw(PageConfig, Sink)
+   */
+  public final int allRaw(@NotNull PageConfig config, @NotNull OutputStream out)
+      throws Exception {
+    return allRaw(config, Okio.sink(out));
+  }
+
+  /**
+   * Fetch a single page of records from the index handing over each record to the given action as
+   * soon as it is decoded. Unlike {@linkplain #all(PageConfig)} no list of the page's records is
+   * built in memory.
+   *
+   * @param config the page config
+   * @param action action to perform on each record
+   */
+  public final void each(@NotNull PageConfig config, @NotNull Consumer<? super T> action)
+      throws Exception {
+    Request request = Request.builder().path(documentsPath).query(config.map()).build();
+
+    try (Response response = remote.get(request)) {
+      encoder.decodeEach(checkNotNull(response.body()), null, documentType, action);
+    }
+  }
+
+  /**
+   * Asynchronously fetch a single page of records from the index.
+   *
+   * @param config   the page config
+   * @param executor executor to decode the response on
+   * @return future that completes with the page
+   * @see #all(PageConfig)
+   */
+  public @NotNull final CompletableFuture<Page<T>> allAsync(
+      @NotNull PageConfig config, @NotNull Executor executor) {
+    Request request = Request.builder().path(documentsPath).query(config.map()).build();
+
+    return Futures.handle(async(executor).getAsync(request), executor,
+        response -> readPage(response, config));
+  }
+
+  /**
+   * Cursor returns an iterable using which you can iterate over all the records in the index,
+   * starting at the config's offset. It transparently handles the pagination details so that it
+   * doesn't load a (potentially) large dataset into memory at once, and fetches upcoming pages in
+   * the background while the current one is being consumed.
+   *
+   * @param config   page config, used as a template for all the pages
+   * @param prefetch max number of pages to fetch ahead of the consumer
+   * @param executor executor to decode the responses on
+   * @return cursor over all the records
+   */
+  public @NotNull final Cursor<T> cursor(
+      @NotNull PageConfig config, int prefetch, @NotNull Executor executor) {
+    return new Cursor<>(config, prefetch,
+        offset -> allAsync(config.toBuilder().offset(offset).build(), executor));
+  }
+
+  /**
+   * Returns a sequential stream over all the records in the index, starting at the config's
+   * offset. Pages are fetched as the stream is consumed.
+   *
+   * @param config page config, used as a template for all the pages
+   * @return stream over all the records
+   * @see #parallelStream(PageConfig)
+   */
+  public @NotNull final Stream<T> stream(@NotNull PageConfig config) throws Exception {
+    return StreamSupport.stream(spliterator(config), false);
+  }
+
+  /**
+   * Returns a parallel stream over all the records in the index, starting at the config's offset.
+   *
+   * <p>
+   * The range of offsets to scan is set up using the {@linkplain #count() number of documents} in
+   * the index, and is split into disjoint ranges of whole pages which are fetched independently of
+   * each other by the stream's worker threads. The number of concurrent requests is thus bounded
+   * by the stream's parallelism (that of the {@linkplain java.util.concurrent.ForkJoinPool pool}
+   * it runs in). Documents inserted while the index is being scanned might not be included.
+   *
+   * @param config page config, used as a template for all the pages
+   * @return parallel stream over all the records
+   */
+  public @NotNull final Stream<T> parallelStream(@NotNull PageConfig config) throws Exception {
+    return StreamSupport.stream(spliterator(config), true);
+  }
+
+  /**
+   * Returns the number of documents in the index, as reported by the index's stats.
+   *
+   * @return number of documents in the index
+   */
+  public final long count() throws Exception {
+    Request request = Request.builder().path(path + "/stats").build();
+
+    try (Response response = remote.get(request)) {
+      if (response.status() != 200) {
+        throw new RuntimeException("failed to fetch index stats");
+      }
+
+      byte[] json = Okio.buffer(checkNotNull(response.body())).readByteArray();
+      int[] fields = JsonScanner.fields(json, 0);
+      for (int i = 0; i < fields.length; i += 4) {
+        if (JsonScanner.matches(json, fields[i], fields[i + 1], NUMBER_OF_DOCUMENTS)) {
+          return Long.parseLong(JsonScanner.text(json, fields[i + 2], fields[i + 3]));
+        }
+      }
+      throw new RuntimeException("failed to fetch index stats");
     }
   }
 
@@ -146,18 +421,116 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
    * Parameters</a>
    */
   public @NotNull SearchPage<T> search(@NotNull SearchConfig config) throws Exception {
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/search", uid())).query(config.map()).build();
+    SearchCache cache = this.cache;
+    if (cache != null) {
+      return cache.get(this, config);
+    }
+
+    Request request = Request.builder().path(searchPath).query(config.map()).build();
 
     // execute request and return page
+    long start = System.nanoTime();
     try (Response response = remote.get(request)) {
-      new SearchPage.Response<>(null);
-      SearchPage.Response<T> r = encoder.decode(response.body(),
-          getParameterized(null, SearchPage.Response.class, documentType));
-      return new SearchPage<>(r, config);
+      return searched(readSearchPage(response, config), start);
+    }
+  }
+
+  /* search bypassing the cache; the response is buffered to report it's size to the consumer */
+  @NotNull SearchPage<T> searchBuffered(@NotNull SearchConfig config, @NotNull LongConsumer size)
+      throws Exception {
+    Request request = Request.builder().path(searchPath).query(config.map()).build();
+
+    long start = System.nanoTime();
+    try (Response response = remote.get(request)) {
+      Buffer buffer = new Buffer();
+      buffer.writeAll(checkNotNull(response.body()));
+      size.accept(buffer.size());
+      return searched(decodeSearchPage(buffer, config), start);
     }
   }
 
+  /**
+   * Search cursor returns an iterable using which you can iterate over all the hits matching the
+   * search, starting at the config's offset. Upcoming pages are fetched in the background while the
+   * current one is being consumed.
+   *
+   * @param config   search config, used as a template for all the pages
+   * @param prefetch max number of pages to fetch ahead of the consumer
+   * @param executor executor to decode the responses on
+   * @return cursor over all the hits
+   */
+  public @NotNull Cursor<T> searchCursor(
+      @NotNull SearchConfig config, int prefetch, @NotNull Executor executor) {
+    return new Cursor<>(config, prefetch,
+        offset -> searchAsync(config.toBuilder().offset(offset).build(), executor));
+  }
+
+  /**
+   * Search executes a search for documents matching a specific query in the current index handing
+   * over each hit to the given action as soon as it is decoded. Unlike {@linkplain
+   * #search(SearchConfig)} no list of the hits is built in memory.
+   *
+   * @param config the search config
+   * @param action action to perform on each hit
+   */
+  public void searchEach(@NotNull SearchConfig config, @NotNull Consumer<? super T> action)
+      throws Exception {
+    Request request = Request.builder().path(searchPath).query(config.map()).build();
+
+    try (Response response = remote.get(request)) {
+      encoder.decodeEach(checkNotNull(response.body()), "hits", documentType, action);
+    }
+  }
+
+  /**
+   * Asynchronously execute a search for documents matching a specific query in the current index.
+   *
+   * @param config   the search config
+   * @param executor executor to decode the response on
+   * @return future that completes with the search results
+   * @see #search(SearchConfig)
+   */
+  public @NotNull CompletableFuture<SearchPage<T>> searchAsync(
+      @NotNull SearchConfig config, @NotNull Executor executor) {
+    Request request = Request.builder().path(searchPath).query(config.map()).build();
+
+    long start = System.nanoTime();
+    return Futures.handle(async(executor).getAsync(request), executor,
+        response -> searched(readSearchPage(response, config), start));
+  }
+
+  /**
+   * Search executes a search in the current index without decoding the results, for example to
+   * forward them to another client as-is. The search cache (if any) is bypassed. The caller owns
+   * the returned response and must close it.
+   *
+   * @param config the search config
+   * @return the raw response
+   */
+  public @NotNull Response searchRaw(@NotNull SearchConfig config) throws Exception {
+    return remote.get(Request.builder().path(searchPath).query(config.map()).build());
+  }
+
+  /**
+   * Search executes a search in the current index and writes the response's body, as-is, to the
+   * given sink. The body is forwarded whatever the status is, so error responses are passed on
+   * too. The sink is flushed but not closed.
+   *
+   * @param config the search config
+   * @param sink   sink to write the body to
+   * @return the response's HTTP status
+   */
+  public int searchRaw(@NotNull SearchConfig config, @NotNull Sink sink) throws Exception {
+    return transfer(searchRaw(config), sink);
+  }
+
+  /**
+   * @see #searchRaw(SearchConfig, Sink)
+   */
+  public int searchRaw(@NotNull SearchConfig config, @NotNull OutputStream out) throws Exception {
+    return searchRaw(config, Okio.sink(out));
+  }
+
   /**
    * Add a list of documents or replace them if they already exist.
    *
@@ -171,9 +544,8 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
    */
   @SafeVarargs
   public @NotNull final Update insert(T... documents) throws Exception {
-    Source json = encoder.encode(Arrays.asList(documents));
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/documents", uid())).body(json).build();
+    Body json = json(Arrays.asList(documents));
+    Request request = Request.builder().path(documentsPath).body(json).build();
 
     try (Response response = remote.post(request)) {
       if (response.status() != 202) {
@@ -184,6 +556,27 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
     }
   }
 
+  /**
+   * Asynchronously add a list of documents or replace them if they already exist.
+   *
+   * <p>
+   * Documents are encoded while the request is being written, so they must not be modified until
+   * the returned future completes.
+   *
+   * @param executor  executor to decode the response on
+   * @param documents list of documents to add or update
+   * @return future that completes with the update
+   * @see #insert(T... documents)
+   */
+  @SafeVarargs
+  public @NotNull final CompletableFuture<Update> insertAsync(
+      @NotNull Executor executor, T... documents) {
+    Body json = json(Arrays.asList(documents));
+    Request request = Request.builder().path(documentsPath).body(json).build();
+
+    return makeUpdateAsync(async(executor).postAsync(request), executor);
+  }
+
   /**
    * Add a list of documents and update them if they already.
    *
@@ -197,9 +590,8 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
    */
   @SafeVarargs
   public final @NotNull Update update(T... documents) throws Exception {
-    Source json = encoder.encode(Arrays.asList(documents));
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/documents", uid())).body(json).build();
+    Body json = json(Arrays.asList(documents));
+    Request request = Request.builder().path(documentsPath).body(json).build();
 
     try (Response response = remote.put(request)) {
       if (response.status() != 202) {
@@ -211,33 +603,118 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
   }
 
   /**
-   * Delete the documents in the current index.
+   * Asynchronously add a list of documents and update them if they already.
    *
-   * @param documents list of documents to delete
+   * <p>
+   * Documents are encoded while the request is being written, so they must not be modified until
+   * the returned future completes.
+   *
+   * @param executor  executor to decode the response on
+   * @param documents list of documents to add or update
+   * @return future that completes with the update
+   * @see #update(T... documents)
    */
   @SafeVarargs
-  public final @NotNull Update delete(T... documents) throws Exception {
-    List<?> ids;
-    try {
-      Field primaryKeyField = documentType.getDeclaredField(primaryKey());
-      primaryKeyField.setAccessible(true);
-      ids = Arrays.stream(documents)
-          .map(doc -> {
-            try {
-              return primaryKeyField.get(doc);
-            } catch (Exception e) {
-              throw new RuntimeException(e);
-            }
-          }).collect(Collectors.toList());
-    } catch (NoSuchFieldException ex) {
-      throw new RuntimeException(ex);
+  public final @NotNull CompletableFuture<Update> updateAsync(
+      @NotNull Executor executor, T... documents) {
+    Body json = json(Arrays.asList(documents));
+    Request request = Request.builder().path(documentsPath).body(json).build();
+
+    return makeUpdateAsync(async(executor).putAsync(request), executor);
+  }
+
+  /**
+   * Returns a new bulk indexer which writes a continuous stream of documents to this index in
+   * batches.
+   *
+   * @param config the bulk config
+   * @see BulkIndexer
+   */
+  public final @NotNull BulkIndexer<T> bulkIndexer(@NotNull BulkConfig config) {
+    return new BulkIndexer<>(this, config);
+  }
+
+  /**
+   * Import the documents in the given file, which are already encoded as json, without decoding
+   * them.
+   *
+   * <p>
+   * A {@linkplain ImportConfig.Format#JSON JSON} file is memory-mapped and streamed as-is in a
+   * single request. A {@linkplain ImportConfig.Format#NDJSON NDJSON} file is read through it's
+   * channel and split into size-bounded batches on record boundaries, one request per batch.
+   *
+   * @param path   path of the file to import
+   * @param config the import config
+   * @return updates of all the requests, in order
+   */
+  public final @NotNull List<Update> importFile(@NotNull Path path, @NotNull ImportConfig config)
+      throws Exception {
+    if (config.format() == ImportConfig.Format.NDJSON) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+        return importChannel(channel, config);
+      }
     }
 
-    Source json = encoder.encode(checkNotNull(ids));
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/documents/delete-batch", uid())).body(json).build();
+    long size = Files.size(path);
+    Body json = new Body() {
+      @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+          // map the file one window at a time so that files of any size can be sent
+          for (long position = 0; position < size; position += MAP_WINDOW) {
+            sink.write(channel.map(FileChannel.MapMode.READ_ONLY, position,
+                Math.min(MAP_WINDOW, size - position)));
+          }
+        }
+      }
 
-    try (Response response = remote.post(request)) {
+      @Override public long contentLength() {
+        return size;
+      }
+    };
+
+    return Collections.singletonList(write(config.partial(), json));
+  }
+
+  /**
+   * Import the documents read from the given channel, which are already encoded as json, without
+   * decoding them. The channel is read till it's end but isn't closed.
+   *
+   * <p>
+   * {@linkplain ImportConfig.Format#JSON JSON} input is streamed as-is in a single request.
+   * {@linkplain ImportConfig.Format#NDJSON NDJSON} input is split into size-bounded batches on
+   * record boundaries, one request per batch.
+   *
+   * @param channel channel to read the documents from
+   * @param config  the import config
+   * @return updates of all the requests, in order
+   */
+  public final @NotNull List<Update> importChannel(
+      @NotNull ReadableByteChannel channel, @NotNull ImportConfig config) throws Exception {
+    BufferedSource source = Okio.buffer(Okio.source(Channels.newInputStream(channel)));
+    if (config.format() == ImportConfig.Format.JSON) {
+      Body json = new Body() {
+        @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+          sink.writeAll(source);
+        }
+
+        @Override public boolean isOneShot() {
+          return true; // the channel can only be read once, so the request must not be replayed
+        }
+      };
+      return Collections.singletonList(write(config.partial(), json));
+    }
+
+    List<Update> updates = new ArrayList<>();
+    NdjsonSplitter.split(source, config.maxBytes(),
+        batch -> updates.add(write(config.partial(), Body.of(batch))));
+    return updates;
+  }
+
+  /* write the already encoded documents to the index */
+  @NotNull private Update write(boolean partial, @NotNull Body json) throws Exception {
+    Request request = Request.builder().path(documentsPath).body(json).build();
+
+    try (Response response = partial ? remote.put(request) : remote.post(request)) {
       if (response.status() != 202) {
         throw new RuntimeException("failed to insert documents");
       }
@@ -246,12 +723,119 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
     }
   }
 
+  /* asynchronously write the already encoded documents to the index */
+  @NotNull CompletableFuture<Update> writeAsync(
+      boolean partial, @NotNull Body json, @NotNull Executor executor) {
+    Request request = Request.builder().path(documentsPath).body(json).build();
+
+    AsyncRemote remote = async(executor);
+    return makeUpdateAsync(
+        partial ? remote.putAsync(request) : remote.postAsync(request), executor);
+  }
+
+  /**
+   * Delete the documents in the current index.
+   *
+   * @param documents list of documents to delete
+   */
+  @SafeVarargs
+  public final @NotNull Update delete(T... documents) throws Exception {
+    checkNotNull(documents);
+    return deleteBatch(sink -> writeIds(sink, Arrays.stream(documents).map(this::id).iterator()));
+  }
+
+  /**
+   * Delete the documents with the given ids in the current index.
+   *
+   * <p>
+   * The ids are streamed to the server as they are read from the iterable, without collecting them
+   * in memory first.
+   *
+   * @param ids ids of the documents to delete
+   */
+  public final @NotNull Update deleteByIds(@NotNull Iterable<String> ids) throws Exception {
+    checkNotNull(ids);
+    return deleteBatch(sink -> writeIds(sink, ids.iterator()));
+  }
+
+  /**
+   * Delete the documents with the given ids in the current index.
+   *
+   * <p>
+   * The ids are streamed to the server as they are read from the iterator. Ids can either be
+   * integers or strings (any other value is sent as it's string representation). As the iterator
+   * can only be consumed once, the request cannot be replayed.
+   *
+   * @param ids ids of the documents to delete
+   */
+  public final @NotNull Update deleteByIds(@NotNull Iterator<?> ids) throws Exception {
+    checkNotNull(ids);
+    Body json = new Body() {
+      @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        writeIds(sink, ids);
+      }
+
+      @Override public boolean isOneShot() {
+        return true; // the iterator can only be consumed once
+      }
+    };
+    return deleteBatch(json);
+  }
+
+  /**
+   * Delete the documents with the given (integer) ids in the current index.
+   *
+   * <p>
+   * The ids are streamed to the server as they are produced by the stream, without boxing them. As
+   * the stream can only be consumed once, the request cannot be replayed.
+   *
+   * @param ids ids of the documents to delete
+   */
+  public final @NotNull Update deleteByIds(@NotNull LongStream ids) throws Exception {
+    checkNotNull(ids);
+    Body json = new Body() {
+      @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+        PrimitiveIterator.OfLong it = ids.iterator();
+        sink.writeByte('[');
+        for (boolean first = true; it.hasNext(); first = false) {
+          if (!first) {
+            sink.writeByte(',');
+          }
+          sink.writeDecimalLong(it.nextLong());
+        }
+        sink.writeByte(']');
+      }
+
+      @Override public boolean isOneShot() {
+        return true; // the stream can only be consumed once
+      }
+    };
+    return deleteBatch(json);
+  }
+
+  /**
+   * Asynchronously delete the documents in the current index.
+   *
+   * @param executor  executor to decode the response on
+   * @param documents list of documents to delete
+   * @return future that completes with the update
+   * @see #delete(T... documents)
+   */
+  @SafeVarargs
+  public final @NotNull CompletableFuture<Update> deleteAsync(
+      @NotNull Executor executor, T... documents) {
+    checkNotNull(documents);
+    Body json = sink -> writeIds(sink, Arrays.stream(documents).map(this::id).iterator());
+    Request request = Request.builder().path(documentsPath + "/delete-batch").body(json).build();
+
+    return makeUpdateAsync(async(executor).postAsync(request), executor);
+  }
+
   /**
    * Delete all documents in the current index
    */
   public final @NotNull Update clear() throws Exception {
-    Request request = Request.builder()
-        .path(String.format("/indexes/%s/documents", uid())).build();
+    Request request = Request.builder().path(documentsPath).build();
 
     try (Response response = remote.delete(request)) {
       if (response.status() != 202) {
@@ -262,15 +846,173 @@ import static net.riyazali.meili.utils.ReflectionUtils.getParameterized;
     }
   }
 
+  /**
+   * Asynchronously delete all documents in the current index
+   *
+   * @param executor executor to decode the response on
+   * @return future that completes with the update
+   * @see #clear()
+   */
+  public final @NotNull CompletableFuture<Update> clearAsync(@NotNull Executor executor) {
+    Request request = Request.builder().path(documentsPath).build();
+
+    return makeUpdateAsync(async(executor).deleteAsync(request), executor);
+  }
+
   // Helpers
   // ------- - - - -
 
+  @NotNull private Update deleteBatch(Body json) throws Exception {
+    Request request = Request.builder().path(documentsPath + "/delete-batch").body(json).build();
+
+    try (Response response = remote.post(request)) {
+      if (response.status() != 202) {
+        throw new RuntimeException("failed to insert documents");
+      }
+
+      return makeUpdate(response);
+    }
+  }
+
   @NotNull private Update makeUpdate(Response response) throws Exception {
-    Update update = encoder.decode(response.body(), Update.class);
+    Update update = readUpdate(response);
+    return refreshOnWrite ? update.refresh() : update;
+  }
+
+  @NotNull private CompletableFuture<Update> makeUpdateAsync(
+      CompletableFuture<Response> call, Executor executor) {
+    return Futures.handle(call, executor, response -> {
+      if (response.status() != 202) {
+        throw new RuntimeException("failed to insert documents");
+      }
+
+      return readUpdate(response);
+    }).thenCompose(update -> refreshOnWrite ?
+        update.refreshAsync(executor) : CompletableFuture.completedFuture(update));
+  }
+
+  @NotNull private Update readUpdate(Response response) {
+    Update update = updateDecoder.decode(checkNotNull(response.body()));
     update.index(this);
     update.remote(remote);
-    update.encoder(encoder);
-    return update.refresh();
+    return update;
+  }
+
+  @Nullable private T readDocument(Response response) {
+    return response.status() == 200 ?
+        documentDecoder.decode(checkNotNull(response.body())) : null;
+  }
+
+  @NotNull private Page<T> readPage(Response response, PageConfig config) {
+    return new Page<>(documentsDecoder.decode(checkNotNull(response.body())), config);
+  }
+
+  @NotNull private SearchPage<T> readSearchPage(Response response, SearchConfig config)
+      throws IOException {
+    return decodeSearchPage(checkNotNull(response.body()), config);
+  }
+
+  @NotNull private SearchPage<T> decodeSearchPage(Source json, SearchConfig config)
+      throws IOException {
+    if (config.lazy()) {
+      byte[] bytes = (json instanceof BufferedSource ? (BufferedSource) json : Okio.buffer(json))
+          .readByteArray();
+      return SearchPage.lazy(bytes, config, documentDecoder, primaryKey());
+    }
+
+    return new SearchPage<>(searchDecoder.decode(json), config);
+  }
+
+  // report the search's timings to the metrics sink (if any)
+  @NotNull private SearchPage<T> searched(SearchPage<T> page, long start) {
+    MetricsSink metrics = this.metrics;
+    if (metrics != null) {
+      metrics.searched(page.processingTime().toNanos(), System.nanoTime() - start);
+    }
+    return page;
+  }
+
+  /* set the encoder to use, resolving the decoders / encoders of the index's payloads with it */
+  void encoder(@NotNull Encoder encoder) {
+    Type documentsType = getParameterized(null, List.class, documentType);
+    this.documentDecoder = encoder.decoder(documentType);
+    this.documentsDecoder = encoder.decoder(documentsType);
+    this.searchDecoder =
+        encoder.decoder(getParameterized(null, SearchPage.Response.class, documentType));
+    this.updateDecoder = encoder.decoder(Update.class);
+    this.updatesDecoder = encoder.decoder(getParameterized(null, List.class, Update.class));
+    this.documentsEncoder = encoder.encoder(documentsType);
+    this.encoder = encoder;
+  }
+
+  /* returns the path of the index's endpoint; paths of it's other endpoints begin with it */
+  @NotNull String path() {
+    return path;
+  }
+
+  /* called once an update issued through this index is seen as processed */
+  void processed(@NotNull Update update) {
+    SearchCache cache = this.cache;
+    if (cache != null) {
+      cache.invalidate(uid());
+    }
+  }
+
+  // extract the primary key value from the given document
+  @Nullable private Object id(T document) {
+    try {
+      return (Object) PRIMARY_KEYS.get(documentType).invokeExact((Object) document);
+    } catch (Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+
+  // write the ids as a json array
+  private static void writeIds(BufferedSink sink, Iterator<?> ids) throws IOException {
+    sink.writeByte('[');
+    for (boolean first = true; ids.hasNext(); first = false) {
+      if (!first) {
+        sink.writeByte(',');
+      }
+      writeScalar(sink, checkNotNull(ids.next()));
+    }
+    sink.writeByte(']');
+  }
+
+  // write the response's body to the sink and close the response
+  private static int transfer(Response response, Sink sink) throws Exception {
+    try (Response r = response) {
+      BufferedSink buffered =
+          sink instanceof BufferedSink ? (BufferedSink) sink : Okio.buffer(sink);
+      Source body = r.body();
+      if (body != null) {
+        buffered.writeAll(body);
+      }
+      buffered.flush();
+      return r.status();
+    }
+  }
+
+  // returns a spliterator over all the records in the index
+  @NotNull private Spliterator<T> spliterator(@NotNull PageConfig config) throws Exception {
+    return new PageSpliterator<>((offset, limit) ->
+        all(config.toBuilder().offset(offset).limit(limit).build()),
+        config.limit(), config.offset(), count());
+  }
+
+  // returns a body which streams the encoded object directly to the network
+  @NotNull private Body json(@NotNull Object object) {
+    return sink -> encoder.encode(object, sink);
+  }
+
+  // returns a body which streams the encoded documents directly to the network
+  @NotNull private Body json(@NotNull List<T> documents) {
+    return sink -> documentsEncoder.encode(documents, sink);
+  }
+
+  // returns an asynchronous view over the remote
+  @NotNull private AsyncRemote async(Executor executor) {
+    return AsyncRemote.adapt(remote, executor);
   }
 
   // Factories
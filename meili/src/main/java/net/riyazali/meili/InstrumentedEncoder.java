@@ -0,0 +1,103 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.function.Consumer;
+import okio.BufferedSink;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Encoder} decorator that reports the time taken to encode and decode objects to a
+ * {@linkplain MetricsSink}.
+ *
+ * <p>
+ * Decoding time includes the time spent reading the source, and for {@linkplain
+ * #decodeEach(Source, String, Type, Consumer) decodeEach} the time spent in the consumer.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class InstrumentedEncoder implements Encoder {
+
+  private final Encoder delegate;
+  private final MetricsSink sink;
+
+  private InstrumentedEncoder(@NotNull Encoder delegate, @NotNull MetricsSink sink) {
+    this.delegate = checkNotNull(delegate);
+    this.sink = checkNotNull(sink);
+  }
+
+  @Override public @NotNull <T> Source encode(@NotNull T object) {
+    long start = System.nanoTime();
+    try {
+      return delegate.encode(object);
+    } finally {
+      sink.encoded(System.nanoTime() - start);
+    }
+  }
+
+  @Override public <T> void encode(@NotNull T object, @NotNull BufferedSink out)
+      throws IOException {
+    long start = System.nanoTime();
+    try {
+      delegate.encode(object, out);
+    } finally {
+      sink.encoded(System.nanoTime() - start);
+    }
+  }
+
+  @Override public @NotNull <T> T decode(@NotNull Source json, @NotNull Type type) {
+    long start = System.nanoTime();
+    try {
+      return delegate.decode(json, type);
+    } finally {
+      sink.decoded(System.nanoTime() - start);
+    }
+  }
+
+  @Override public <T> @NotNull TypeDecoder<T> decoder(@NotNull Type type) {
+    // the delegate's decoder is resolved once, and only the decoding itself is timed
+    TypeDecoder<T> decoder = delegate.decoder(type);
+    return json -> {
+      long start = System.nanoTime();
+      try {
+        return decoder.decode(json);
+      } finally {
+        sink.decoded(System.nanoTime() - start);
+      }
+    };
+  }
+
+  @Override public <T> @NotNull TypeEncoder<T> encoder(@NotNull Type type) {
+    TypeEncoder<T> encoder = delegate.encoder(type);
+    return (value, out) -> {
+      long start = System.nanoTime();
+      try {
+        encoder.encode(value, out);
+      } finally {
+        sink.encoded(System.nanoTime() - start);
+      }
+    };
+  }
+
+  @Override public <T> void decodeEach(@NotNull Source json, @Nullable String field,
+      @NotNull Type elementType, @NotNull Consumer<? super T> consumer) {
+    long start = System.nanoTime();
+    try {
+      delegate.decodeEach(json, field, elementType, consumer);
+    } finally {
+      sink.decoded(System.nanoTime() - start);
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  public static @NotNull InstrumentedEncoder create(
+      @NotNull Encoder delegate, @NotNull MetricsSink sink) {
+    return new InstrumentedEncoder(delegate, sink);
+  }
+}
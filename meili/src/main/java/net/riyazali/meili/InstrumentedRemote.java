@@ -0,0 +1,191 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import net.riyazali.meili.MetricsSink.Operation;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Source;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} decorator that reports the latency, payload sizes and status of every call to
+ * a {@linkplain MetricsSink}, keyed by the logical {@linkplain Operation operation} it performs.
+ *
+ * <p>
+ * Latency is measured till the response (headers) arrives. A call is reported once it's response is
+ * closed, along with the number of bytes read from the response's body; responses which are never
+ * closed are never reported. Calls that fail without a response are reported as failures.
+ *
+ * <p>
+ * If the delegate isn't an {@linkplain AsyncRemote} asynchronous calls run it on the executor given
+ * during creation.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class InstrumentedRemote implements AsyncRemote {
+
+  private final Remote delegate;
+  private final AsyncRemote async;
+  private final MetricsSink sink;
+
+  private InstrumentedRemote(
+      @NotNull Remote delegate, @NotNull MetricsSink sink, @NotNull Executor executor) {
+    this.delegate = checkNotNull(delegate);
+    this.async = AsyncRemote.adapt(delegate, executor);
+    this.sink = checkNotNull(sink);
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    Operation operation = Operation.of(method, request.path());
+    CountingBody body = request.body() != null ? new CountingBody(request.body()) : null;
+
+    long start = System.nanoTime();
+    Response response;
+    try {
+      response = Remotes.dispatch(delegate, method, counted(request, body));
+    } catch (IOException | RuntimeException e) {
+      sink.failure(operation, System.nanoTime() - start);
+      throw e;
+    }
+
+    return new InstrumentedResponse(operation, response, System.nanoTime() - start, body);
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    Operation operation = Operation.of(method, request.path());
+    CountingBody body = request.body() != null ? new CountingBody(request.body()) : null;
+
+    long start = System.nanoTime();
+    CompletableFuture<Response> call = async.executeAsync(method, counted(request, body));
+    CompletableFuture<Response> result = call.handle((response, throwable) -> {
+      long nanos = System.nanoTime() - start;
+      if (throwable != null) {
+        sink.failure(operation, nanos);
+        throw throwable instanceof CompletionException ?
+            (CompletionException) throwable : new CompletionException(throwable);
+      }
+      return new InstrumentedResponse(operation, response, nanos, body);
+    });
+
+    result.whenComplete((r, t) -> {
+      if (result.isCancelled() && !call.cancel(true)) {
+        call.thenAccept(Remotes::closeQuietly);
+      }
+    });
+
+    return result;
+  }
+
+  // returns a copy of the request with the body replaced by the counting one
+  private static @NotNull Request counted(@NotNull Request request, @Nullable CountingBody body) {
+    return body == null ? request :
+        Request.builder().path(request.path()).query(request.query()).body(body).build();
+  }
+
+  // Body that counts the number of bytes written
+  private static final class CountingBody implements Body {
+    private final Body body;
+    private volatile long bytes;
+
+    private CountingBody(@NotNull Body body) {
+      this.body = body;
+    }
+
+    @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+      long length = body.contentLength();
+      if (length >= 0) {
+        body.writeTo(sink);
+        bytes = length;
+        return;
+      }
+
+      long[] count = new long[1];
+      BufferedSink counting = Okio.buffer(new ForwardingSink(sink) {
+        @Override public void write(@NotNull Buffer source, long byteCount) throws IOException {
+          super.write(source, byteCount);
+          count[0] += byteCount;
+        }
+      });
+      body.writeTo(counting);
+      counting.emit();
+      bytes = count[0];
+    }
+
+    @Override public long contentLength() {
+      return body.contentLength();
+    }
+
+    @Override public boolean isOneShot() {
+      return body.isOneShot();
+    }
+  }
+
+  // Response which reports the call once it is closed
+  private final class InstrumentedResponse extends Response {
+    private final Operation operation;
+    private final Response response;
+    private final long nanos;
+    private final @Nullable CountingBody body;
+
+    private @Nullable CountingSource source;
+    private boolean closed;
+
+    private InstrumentedResponse(@NotNull Operation operation, @NotNull Response response,
+        long nanos, @Nullable CountingBody body) {
+      this.operation = operation;
+      this.response = response;
+      this.nanos = nanos;
+      this.body = body;
+    }
+
+    @Override public int status() {
+      return response.status();
+    }
+
+    @Override public synchronized @Nullable Source body() {
+      Source body = response.body();
+      if (source == null && body != null) {
+        // count off the response's own buffer, so that decoders can still read it directly
+        source = new CountingSource(
+            body instanceof BufferedSource ? (BufferedSource) body : Okio.buffer(body));
+      }
+      return source;
+    }
+
+    @Override public void close() throws Exception {
+      synchronized (this) {
+        if (!closed) {
+          closed = true;
+          sink.call(operation, response.status(), nanos, body != null ? body.bytes : 0,
+              source != null ? source.count() : 0);
+        }
+      }
+      response.close();
+    }
+  }
+
+  // Factories
+  // ------ - - - - -
+
+  public static @NotNull InstrumentedRemote create(
+      @NotNull Remote delegate, @NotNull MetricsSink sink) {
+    return create(delegate, sink, ForkJoinPool.commonPool());
+  }
+
+  public static @NotNull InstrumentedRemote create(
+      @NotNull Remote delegate, @NotNull MetricsSink sink, @NotNull Executor executor) {
+    return new InstrumentedRemote(delegate, sink, executor);
+  }
+}
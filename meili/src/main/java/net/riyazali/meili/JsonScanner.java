@@ -0,0 +1,214 @@
+package net.riyazali.meili;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import org.jetbrains.annotations.NotNull;
+
+// Finds the boundaries of values in utf-8 encoded json without binding them to any object
+// The json is only validated as far as is needed to find the boundaries
+final class JsonScanner {
+  private JsonScanner() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  /**
+   * Returns the fields of the object starting at the given index, packed as groups of four: the
+   * start and end of the field's name (without the quotes) followed by the start and end of it's
+   * value.
+   */
+  static @NotNull int[] fields(@NotNull byte[] json, int start) {
+    int i = expect(json, skipWhitespace(json, start), '{');
+    int[] fields = new int[16];
+    int n = 0;
+
+    i = skipWhitespace(json, i + 1);
+    if (i < json.length && json[i] == '}') {
+      return new int[0];
+    }
+
+    while (true) {
+      int name = expect(json, i, '"');
+      int nameEnd = skipString(json, name);
+      int value = skipWhitespace(json, expect(json, skipWhitespace(json, nameEnd), ':') + 1);
+      int valueEnd = skipValue(json, value);
+
+      if (n + 4 > fields.length) {
+        fields = Arrays.copyOf(fields, fields.length * 2);
+      }
+      fields[n++] = name + 1;
+      fields[n++] = nameEnd - 1;
+      fields[n++] = value;
+      fields[n++] = valueEnd;
+
+      i = skipWhitespace(json, valueEnd);
+      if (i < json.length && json[i] == '}') {
+        return Arrays.copyOf(fields, n);
+      }
+      i = skipWhitespace(json, expect(json, i, ',') + 1);
+    }
+  }
+
+  /**
+   * Returns the elements of the array starting at the given index, packed as pairs of the start and
+   * end of each element.
+   */
+  static @NotNull int[] elements(@NotNull byte[] json, int start) {
+    int i = expect(json, skipWhitespace(json, start), '[');
+    int[] elements = new int[32];
+    int n = 0;
+
+    i = skipWhitespace(json, i + 1);
+    if (i < json.length && json[i] == ']') {
+      return new int[0];
+    }
+
+    while (true) {
+      int end = skipValue(json, i);
+      if (n + 2 > elements.length) {
+        elements = Arrays.copyOf(elements, elements.length * 2);
+      }
+      elements[n++] = i;
+      elements[n++] = end;
+
+      i = skipWhitespace(json, end);
+      if (i < json.length && json[i] == ']') {
+        return Arrays.copyOf(elements, n);
+      }
+      i = skipWhitespace(json, expect(json, i, ',') + 1);
+    }
+  }
+
+  /**
+   * Returns true if the bytes between start and end are the same as the expected ones. Escaped
+   * names are compared as-is, without un-escaping them first.
+   */
+  static boolean matches(@NotNull byte[] json, int start, int end, @NotNull byte[] expected) {
+    if (end - start != expected.length) {
+      return false;
+    }
+    for (int i = 0; i < expected.length; i++) {
+      if (json[start + i] != expected[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Returns the value between start and end as text: strings are un-quoted and un-escaped, all
+   * other values (including objects and arrays) are returned as they appear in the json.
+   */
+  static @NotNull String text(@NotNull byte[] json, int start, int end) {
+    if (json[start] != '"') {
+      return new String(json, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    StringBuilder text = null;
+    int last = start + 1;
+    for (int i = start + 1; i < end - 1; i++) {
+      if (json[i] != '\\') {
+        continue;
+      }
+
+      if (text == null) {
+        text = new StringBuilder(end - start);
+      }
+      text.append(new String(json, last, i - last, StandardCharsets.UTF_8));
+
+      byte escaped = json[++i];
+      switch (escaped) {
+        case 'b': text.append('\b'); break;
+        case 'f': text.append('\f'); break;
+        case 'n': text.append('\n'); break;
+        case 'r': text.append('\r'); break;
+        case 't': text.append('\t'); break;
+        case 'u':
+          text.append((char) Integer.parseInt(
+              new String(json, i + 1, 4, StandardCharsets.US_ASCII), 16));
+          i += 4;
+          break;
+        default: text.append((char) escaped); // one of " \ /
+      }
+      last = i + 1;
+    }
+
+    if (text == null) {
+      return new String(json, start + 1, end - start - 2, StandardCharsets.UTF_8);
+    }
+    return text.append(new String(json, last, end - 1 - last, StandardCharsets.UTF_8)).toString();
+  }
+
+  // returns the index just past the value starting at the given index
+  static int skipValue(@NotNull byte[] json, int i) {
+    if (i >= json.length) {
+      throw malformed(i);
+    }
+
+    switch (json[i]) {
+      case '"':
+        return skipString(json, i);
+
+      case '{':
+      case '[':
+        for (int depth = 0; i < json.length; i++) {
+          byte b = json[i];
+          if (b == '"') {
+            i = skipString(json, i) - 1;
+          } else if (b == '{' || b == '[') {
+            depth++;
+          } else if ((b == '}' || b == ']') && --depth == 0) {
+            return i + 1;
+          }
+        }
+        throw malformed(i);
+
+      default: // number, true, false or null
+        int end = i;
+        while (end < json.length && !isDelimiter(json[end])) {
+          end++;
+        }
+        if (end == i) {
+          throw malformed(i);
+        }
+        return end;
+    }
+  }
+
+  // returns the index just past the closing quote of the string starting at the given index
+  private static int skipString(@NotNull byte[] json, int i) {
+    for (i++; i < json.length; i++) {
+      if (json[i] == '\\') {
+        i++;
+      } else if (json[i] == '"') {
+        return i + 1;
+      }
+    }
+    throw malformed(i);
+  }
+
+  private static int skipWhitespace(@NotNull byte[] json, int i) {
+    while (i < json.length && isWhitespace(json[i])) {
+      i++;
+    }
+    return i;
+  }
+
+  private static int expect(@NotNull byte[] json, int i, char c) {
+    if (i >= json.length || json[i] != c) {
+      throw malformed(i);
+    }
+    return i;
+  }
+
+  private static boolean isWhitespace(byte b) {
+    return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+  }
+
+  private static boolean isDelimiter(byte b) {
+    return b == ',' || b == '}' || b == ']' || isWhitespace(b);
+  }
+
+  private static @NotNull IllegalArgumentException malformed(int i) {
+    return new IllegalArgumentException("malformed json at offset " + i);
+  }
+}
@@ -0,0 +1,39 @@
+package net.riyazali.meili;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.jetbrains.annotations.NotNull;
+
+// List of search hits which are decoded only once they are accessed
+// Decoded hits are kept around, so repeated access doesn't decode them again. Concurrent first
+// accesses might each decode the hit but all of them get the same instance back.
+final class LazyHits<T> extends AbstractList<T> implements RandomAccess {
+
+  private final Hit[] hits;
+  private final Encoder.TypeDecoder<T> decoder;
+
+  // hits decoded so far
+  private final AtomicReferenceArray<T> decoded;
+
+  LazyHits(@NotNull Hit[] hits, @NotNull Encoder.TypeDecoder<T> decoder) {
+    this.hits = hits;
+    this.decoder = decoder;
+    this.decoded = new AtomicReferenceArray<>(hits.length);
+  }
+
+  @Override public T get(int index) {
+    T hit = decoded.get(index);
+    if (hit == null) {
+      hit = decoder.decode(hits[index].source());
+      if (!decoded.compareAndSet(index, null, hit)) {
+        hit = decoded.get(index);
+      }
+    }
+    return hit;
+  }
+
+  @Override public int size() {
+    return hits.length;
+  }
+}
@@ -0,0 +1,295 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} that spreads reads over several Meilisearch nodes and sends writes to the
+ * primary one.
+ *
+ * <p>
+ * Each node is a remote of it's own (usually an {@code HttpRemote} bound to the node's endpoint).
+ * GET requests are routed to the healthy node with the lowest load, as defined by the configured
+ * {@linkplain Strategy strategy}; the primary takes part in serving reads too. All other requests
+ * are sent to the primary, whatever it's health.
+ *
+ * <p>
+ * Nodes are health checked in the background: a node is ejected from the read rotation as soon as
+ * a check fails (or doesn't complete within the health check timeout, so that a node which hangs
+ * rather than refusing connections is ejected too), and is re-admitted once a check succeeds
+ * again. If every node has been ejected, reads are spread over all of them rather than failed
+ * outright.
+ *
+ * <p>
+ * The remote should be {@linkplain #close() closed} once done with, to stop the health checks.
+ * Instances of this class are thread-safe and can be safely used concurrently.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class LoadBalancingRemote implements AsyncRemote, AutoCloseable {
+
+  // weight given to the latest sample when updating a node's average latency
+  private static final double ALPHA = 0.2;
+
+  private final Node primary;
+  private final Node[] nodes;
+  private final Strategy strategy;
+  private final Request healthCheck;
+
+  // max time (in millis) a health check may take before the node is considered unhealthy
+  private final long healthCheckTimeout;
+
+  // scheduler running the health checks, and whether we own it (and so must shut it down)
+  private final @Nullable ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+
+  /**
+   * Create a new load balancing remote
+   *
+   * @param primary             node to send writes to; also serves reads
+   * @param replicas            nodes that only serve reads
+   * @param strategy            how to pick the node to serve a read; defaults to least in-flight
+   * @param healthCheckPath     path to health check the nodes on; defaults to /health
+   * @param healthCheckInterval delay between health checks; defaults to 5 seconds, zero disables
+   *                            the health checks
+   * @param healthCheckTimeout  max time a health check may take before it's failed; defaults to 2
+   *                            seconds
+   * @param scheduler           scheduler to run the health checks on; defaults to a single daemon
+   *                            thread owned by the remote
+   * @param executor            executor to run blocking nodes on for asynchronous calls; defaults
+   *                            to the common pool
+   */
+  @Builder private LoadBalancingRemote(@NotNull Remote primary, @Singular List<Remote> replicas,
+      @Nullable Strategy strategy, @Nullable String healthCheckPath,
+      @Nullable Duration healthCheckInterval, @Nullable Duration healthCheckTimeout,
+      @Nullable ScheduledExecutorService scheduler, @Nullable Executor executor) {
+    Executor e = executor != null ? executor : ForkJoinPool.commonPool();
+    this.primary = new Node(checkNotNull(primary), e);
+    this.nodes = new Node[replicas.size() + 1];
+    this.nodes[0] = this.primary;
+    for (int i = 0; i < replicas.size(); i++) {
+      this.nodes[i + 1] = new Node(checkNotNull(replicas.get(i)), e);
+    }
+
+    this.strategy = strategy != null ? strategy : Strategy.LEAST_IN_FLIGHT;
+    this.healthCheck = Request.builder()
+        .path(healthCheckPath != null ? healthCheckPath : "/health").build();
+
+    this.healthCheckTimeout = (healthCheckTimeout != null ?
+        healthCheckTimeout : Duration.ofSeconds(2)).toMillis();
+    checkArgument(this.healthCheckTimeout > 0);
+
+    long interval = (healthCheckInterval != null ?
+        healthCheckInterval : Duration.ofSeconds(5)).toMillis();
+    checkArgument(interval >= 0);
+    if (interval == 0) {
+      this.scheduler = null;
+      this.ownScheduler = false;
+    } else {
+      this.ownScheduler = scheduler == null;
+      this.scheduler = scheduler != null ? scheduler : Executors.newSingleThreadScheduledExecutor(
+          runnable -> {
+            Thread thread = new Thread(runnable, "meili-health-check");
+            thread.setDaemon(true);
+            return thread;
+          });
+      this.scheduler.scheduleWithFixedDelay(this::check, 0, interval, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    Node node = route(method);
+    long start = node.start();
+    try {
+      return Remotes.dispatch(node.remote, method, request);
+    } finally {
+      node.finish(start);
+    }
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    Node node = route(method);
+    long start = node.start();
+    CompletableFuture<Response> call = node.async.executeAsync(method, request);
+    call.whenComplete((response, throwable) -> node.finish(start));
+    return call;
+  }
+
+  /**
+   * Returns a snapshot of the state of each node, primary first
+   */
+  public @NotNull List<NodeStats> stats() {
+    List<NodeStats> stats = new ArrayList<>(nodes.length);
+    for (Node node : nodes) {
+      stats.add(new NodeStats(node.healthy, node.inFlight.get(),
+          Duration.ofNanos((long) node.latency), node.requests.sum(), node.ejections.sum()));
+    }
+    return Collections.unmodifiableList(stats);
+  }
+
+  /**
+   * Stop the health checks. The nodes themselves are not closed.
+   */
+  @Override public void close() {
+    if (ownScheduler && scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  // pick the node to send the request to
+  private @NotNull Node route(@NotNull String method) {
+    if (!"GET".equals(method) || nodes.length == 1) {
+      return primary;
+    }
+
+    // start the scan at a random node so that ties are broken evenly
+    int offset = ThreadLocalRandom.current().nextInt(nodes.length);
+    Node best = null;
+    double bestScore = Double.MAX_VALUE;
+    boolean anyHealthy = false;
+    for (int i = 0; i < nodes.length; i++) {
+      Node node = nodes[(offset + i) % nodes.length];
+      if (node.healthy) {
+        if (!anyHealthy) {
+          anyHealthy = true;
+          best = null; // forget about the unhealthy nodes seen so far
+          bestScore = Double.MAX_VALUE;
+        }
+      } else if (anyHealthy) {
+        continue;
+      }
+
+      double score = strategy.score(node);
+      if (best == null || score < bestScore) {
+        best = node;
+        bestScore = score;
+      }
+    }
+    return checkNotNull(best);
+  }
+
+  // health check all the nodes
+  private void check() {
+    for (Node node : nodes) {
+      if (!node.checking.compareAndSet(false, true)) {
+        continue; // previous check of the node is still in flight
+      }
+
+      // a check that doesn't complete in time is cancelled, which fails it
+      CompletableFuture<Response> call = node.async.getAsync(healthCheck);
+      ScheduledFuture<?> timeout = checkNotNull(scheduler)
+          .schedule(() -> call.cancel(true), healthCheckTimeout, TimeUnit.MILLISECONDS);
+
+      call.whenComplete((response, throwable) -> {
+        timeout.cancel(false);
+        boolean healthy = throwable == null && response.status() / 100 == 2;
+        if (response != null) {
+          Remotes.closeQuietly(response);
+        }
+        if (node.healthy && !healthy) {
+          node.ejections.increment();
+        }
+        node.healthy = healthy;
+        node.checking.set(false);
+      });
+    }
+  }
+
+  /* Strategy decides which of the healthy nodes serves a read */
+  public enum Strategy {
+    // the node with the fewest calls in flight
+    LEAST_IN_FLIGHT {
+      @Override double score(@NotNull Node node) {
+        return node.inFlight.get();
+      }
+    },
+
+    // the node with the lowest moving average of latency, weighed by the calls in flight
+    EWMA_LATENCY {
+      @Override double score(@NotNull Node node) {
+        return node.latency * (node.inFlight.get() + 1);
+      }
+    };
+
+    abstract double score(@NotNull Node node);
+  }
+
+  // a single node along with it's load
+  static final class Node {
+    private final Remote remote;
+    private final AsyncRemote async;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder ejections = new LongAdder();
+    private final AtomicBoolean checking = new AtomicBoolean();
+
+    // moving average of the time (in nanos) it takes the node to respond; updated racily
+    private volatile double latency;
+
+    // result of the latest health check
+    private volatile boolean healthy = true;
+
+    private Node(@NotNull Remote remote, @NotNull Executor executor) {
+      this.remote = remote;
+      this.async = AsyncRemote.adapt(remote, executor);
+    }
+
+    private long start() {
+      inFlight.incrementAndGet();
+      requests.increment();
+      return System.nanoTime();
+    }
+
+    private void finish(long start) {
+      inFlight.decrementAndGet();
+      double sample = System.nanoTime() - start;
+      double previous = latency;
+      latency = previous == 0 ? sample : previous + ALPHA * (sample - previous);
+    }
+  }
+
+  /* NodeStats represents a snapshot of a single node's state */
+  @Accessors(fluent = true)
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @ToString @Getter public static final class NodeStats {
+    // is the node in the read rotation?
+    private final boolean healthy;
+    // number of calls currently in flight
+    private final int inFlight;
+    // moving average of the node's response time
+    private final Duration latency;
+    // number of calls sent to the node
+    private final long requests;
+    // number of times the node was ejected from the read rotation
+    private final long ejections;
+  }
+}
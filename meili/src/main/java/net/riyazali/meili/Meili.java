@@ -1,6 +1,15 @@
 package net.riyazali.meili;
 
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.jetbrains.annotations.NotNull;
 
 import static net.riyazali.meili.Precondition.checkNotNull;
@@ -13,6 +22,12 @@ import static net.riyazali.meili.Precondition.checkNotNull;
  * reference to an index object.
  *
  * <p>
+ * The client keeps a single {@linkplain Index index} instance per document class, so settings made
+ * on an index (such as it's search cache) are seen by every caller getting it from the same client.
+ * An index is only checked for (and created) on meilisearch the first time it is asked for with
+ * {@code autoCreate} set, even if it's asked for concurrently.
+ *
+ * <p>
  * Instances of this class are thread-safe and can be safely used concurrently
  *
  * @author Riyaz Ali (me@riyazali.net)
@@ -23,6 +38,14 @@ public final class Meili {
   private final Remote remote;
   private final Encoder encoder;
 
+  // index instances, one per document class
+  private final ConcurrentMap<Class<?>, Index<?>> indexes = new ConcurrentHashMap<>();
+
+  // indexes which are (being) made sure to exist on meilisearch, one per document class
+  // a future which fails is removed so that the next call tries again
+  private final ConcurrentMap<Class<?>, CompletableFuture<Index<?>>> created =
+      new ConcurrentHashMap<>();
+
   /**
    * Create a new meili client
    *
@@ -60,14 +83,141 @@ public final class Meili {
    *                                  given class type
    */
   public <T> @NotNull Index<T> index(Class<T> klass, boolean autoCreate) throws Exception {
-    Index<T> index = Index.from(klass);
-    index.remote(remote);
-    index.encoder(encoder);
+    Index<T> index = instance(klass);
+    if (!autoCreate) {
+      return index;
+    }
 
-    if (autoCreate && !index.exists()) {
-      index.create();
+    CompletableFuture<Index<?>> future = new CompletableFuture<>();
+    CompletableFuture<Index<?>> existing = created.putIfAbsent(klass, future);
+    if (existing != null) {
+      await(existing); // created (or being created) by an earlier call
+      return index;
     }
 
+    try {
+      if (!index.exists()) {
+        index.create();
+      }
+    } catch (Exception e) {
+      created.remove(klass, future);
+      future.completeExceptionally(e);
+      throw e;
+    }
+
+    future.complete(index);
     return index;
   }
+
+  /**
+   * Asynchronously get or create new index (if autoCreate is set) on meilisearch backend
+   *
+   * @param klass      index's document type
+   * @param autoCreate whether or not we should create / update the index automatically
+   * @param executor   executor to decode the responses on
+   * @return future that completes with the index once it is ready to use
+   * @throws IllegalArgumentException if no sensible document properties can be deduced from the
+   *                                  given class type
+   */
+  public <T> @NotNull CompletableFuture<Index<T>> indexAsync(
+      Class<T> klass, boolean autoCreate, @NotNull Executor executor) {
+    Index<T> index = instance(klass);
+    if (!autoCreate) {
+      return CompletableFuture.completedFuture(index);
+    }
+
+    CompletableFuture<Index<?>> future = new CompletableFuture<>();
+    CompletableFuture<Index<?>> existing = created.putIfAbsent(klass, future);
+    if (existing == null) {
+      index.existsAsync(executor)
+          .thenCompose(exists -> exists ?
+              CompletableFuture.<Void>completedFuture(null) : index.createAsync(executor))
+          .whenComplete((ignored, throwable) -> {
+            if (throwable != null) {
+              created.remove(klass, future);
+              future.completeExceptionally(throwable instanceof CompletionException ?
+                  throwable.getCause() : throwable);
+            } else {
+              future.complete(index);
+            }
+          });
+      existing = future;
+    }
+
+    // a dependent future, so that cancelling it doesn't affect other callers
+    return existing.thenApply(ignored -> index);
+  }
+
+  /**
+   * Get or create new indexes on meilisearch backend for all the given document types, checking
+   * for (and creating) them in parallel. Use this to set up all the indexes at startup.
+   *
+   * @param klasses document types of the indexes
+   * @return the indexes, in the same order as the given document types
+   * @throws IllegalArgumentException if no sensible document properties can be deduced from any of
+   *                                  the given class types
+   */
+  public @NotNull List<Index<?>> indexes(Class<?>... klasses) throws Exception {
+    return await(indexesAsync(ForkJoinPool.commonPool(), klasses));
+  }
+
+  /**
+   * Asynchronously get or create new indexes on meilisearch backend for all the given document
+   * types, checking for (and creating) them in parallel.
+   *
+   * @param executor executor to decode the responses on
+   * @param klasses  document types of the indexes
+   * @return future that completes with the indexes (in the same order as the given document types)
+   * once all of them are ready to use
+   * @throws IllegalArgumentException if no sensible document properties can be deduced from any of
+   *                                  the given class types
+   */
+  public @NotNull CompletableFuture<List<Index<?>>> indexesAsync(
+      @NotNull Executor executor, Class<?>... klasses) {
+    List<CompletableFuture<? extends Index<?>>> futures = new ArrayList<>(klasses.length);
+    for (Class<?> klass : klasses) {
+      futures.add(indexAsync(klass, true, executor));
+    }
+
+    return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+        .thenApply(ignored -> {
+          List<Index<?>> indexes = new ArrayList<>(futures.size());
+          for (CompletableFuture<? extends Index<?>> future : futures) {
+            indexes.add(future.join());
+          }
+          return Collections.unmodifiableList(indexes);
+        });
+  }
+
+  // Helpers
+  // ------- - - - -
+
+  // returns the index instance for the document class, creating it on first use
+  @SuppressWarnings("unchecked")
+  private <T> @NotNull Index<T> instance(Class<T> klass) {
+    Index<?> index = indexes.get(klass);
+    if (index == null) {
+      index = indexes.computeIfAbsent(klass, k -> {
+        Index<T> created = Index.from(klass);
+        created.remote(remote);
+        created.encoder(encoder);
+        return created;
+      });
+    }
+    return (Index<T>) index;
+  }
+
+  // wait for the future to complete, rethrowing the exception it failed with (if any)
+  private static <T> T await(@NotNull CompletableFuture<T> future) throws Exception {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause() instanceof CompletionException ?
+          e.getCause().getCause() : e.getCause();
+      if (cause instanceof Exception) {
+        throw (Exception) cause;
+      }
+      throw e;
+    }
+  }
 }
@@ -0,0 +1,109 @@
+package net.riyazali.meili;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * MetricsSink receives the measurements taken by {@linkplain InstrumentedRemote}, {@linkplain
+ * InstrumentedEncoder} and {@linkplain Index#metrics(MetricsSink) Index}.
+ *
+ * <p>
+ * Methods of this interface are called on the hot path of every call, so implementations must be
+ * thread-safe, should return quickly and should avoid allocating. All methods do nothing by default
+ * so that implementations only need to override the measurements they are interested in.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @see HistogramMetricsSink
+ */
+public interface MetricsSink {
+
+  /**
+   * Called once a call that received a response is complete (ie. when it's response is closed)
+   *
+   * @param operation     logical operation performed by the call
+   * @param status        HTTP status of the response
+   * @param nanos         time taken for the response to arrive
+   * @param requestBytes  number of bytes sent in the request's body
+   * @param responseBytes number of bytes read from the response's body
+   */
+  default void call(@NotNull Operation operation, int status, long nanos, long requestBytes,
+      long responseBytes) {
+  }
+
+  /**
+   * Called when a call fails without receiving a response
+   *
+   * @param operation logical operation performed by the call
+   * @param nanos     time taken for the call to fail
+   */
+  default void failure(@NotNull Operation operation, long nanos) {
+  }
+
+  /**
+   * Called after an object is encoded
+   *
+   * @param nanos time taken to encode the object
+   */
+  default void encoded(long nanos) {
+  }
+
+  /**
+   * Called after an object is decoded
+   *
+   * @param nanos time taken to decode the object
+   */
+  default void decoded(long nanos) {
+  }
+
+  /**
+   * Called after a search completes
+   *
+   * @param serverNanos processing time reported by the server
+   * @param clientNanos time observed by the client (including network and decoding)
+   */
+  default void searched(long serverNanos, long clientNanos) {
+  }
+
+  /* Operation identifies the logical operation performed by a call */
+  enum Operation {
+    SEARCH, GET, ALL, INSERT, UPDATE, DELETE, UPDATE_POLL, OTHER;
+
+    /**
+     * Returns the operation performed by a call with the given method and path
+     */
+    public static @NotNull Operation of(@NotNull String method, @NotNull String path) {
+      // paths look like /indexes/{uid}/{resource}[/{id}]
+      String prefix = "/indexes/";
+      int slash = path.startsWith(prefix) ? path.indexOf('/', prefix.length()) : -1;
+      if (slash < 0) {
+        return OTHER;
+      }
+
+      if (path.startsWith("/search", slash)) {
+        return SEARCH;
+      } else if (path.startsWith("/updates", slash)) {
+        return UPDATE_POLL;
+      } else if (!path.startsWith("/documents", slash)) {
+        return OTHER;
+      }
+
+      int end = slash + "/documents".length();
+      if (path.startsWith("/delete-batch", end)) {
+        return DELETE;
+      }
+
+      boolean single = end < path.length();
+      switch (method) {
+        case "GET":
+          return single ? GET : ALL;
+        case "POST":
+          return single ? OTHER : INSERT;
+        case "PUT":
+          return single ? OTHER : UPDATE;
+        case "DELETE":
+          return DELETE;
+        default:
+          return OTHER;
+      }
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import okio.Buffer;
+import okio.BufferedSource;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+
+// Splits newline delimited json into json arrays of bounded size
+// Records are never parsed; they are moved (not copied) from the source into the batches
+final class NdjsonSplitter {
+  private NdjsonSplitter() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  /* BatchHandler handles a single batch (a json array of records) */
+  @FunctionalInterface interface BatchHandler {
+    void handle(@NotNull Buffer batch) throws Exception;
+  }
+
+  /**
+   * Split the records of the source into json arrays of at most maxBytes, on record boundaries. A
+   * record larger than maxBytes is sent in a batch of it's own. Blank lines are skipped.
+   */
+  static void split(@NotNull BufferedSource source, long maxBytes, @NotNull BatchHandler handler)
+      throws Exception {
+    checkArgument(maxBytes > 0);
+
+    Buffer batch = new Buffer();
+    int records = 0;
+    while (!source.exhausted()) {
+      // indexOf(...) buffers the source till the newline, or till the end if there's none
+      long newline = source.indexOf((byte) '\n');
+      long length = newline != -1 ? newline : source.getBuffer().size();
+
+      long record = trim(source.getBuffer(), length);
+      if (record > 0) {
+        if (records > 0 && batch.size() + record + 2 > maxBytes) {
+          handler.handle(batch.writeByte(']'));
+          batch = new Buffer();
+          records = 0;
+        }
+
+        batch.writeByte(records == 0 ? '[' : ',');
+        source.readFully(batch, record);
+        records++;
+      }
+
+      source.skip(length - record + (newline != -1 ? 1 : 0));
+    }
+
+    if (records > 0) {
+      handler.handle(batch.writeByte(']'));
+    }
+  }
+
+  // returns the length of the record once trailing whitespace (such as \r) is trimmed
+  private static long trim(@NotNull Buffer buffer, long length) {
+    while (length > 0 && Character.isWhitespace(buffer.getByte(length - 1))) {
+      length--;
+    }
+    return length;
+  }
+}
@@ -1,7 +1,6 @@
 package net.riyazali.meili;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import lombok.Builder;
@@ -11,7 +10,7 @@ import lombok.experimental.SuperBuilder;
 import org.jetbrains.annotations.NotNull;
 
 @Accessors(fluent = true)
-@SuperBuilder @Getter public class PageConfig {
+@SuperBuilder(toBuilder = true) @Getter public class PageConfig {
 
   /* Max number of elements to retrieve in a page */
   @Builder.Default private final int limit = 20;
@@ -36,9 +35,15 @@ import org.jetbrains.annotations.NotNull;
 
   /**
    * Generate a Map&lt;String, String&gt; from the config
+   *
+   * <p>
+   * The map is a compact one (backed by a single array) which a {@linkplain Remote.Request request}
+   * uses as it's query without copying it. It keeps the parameters in the order they were put in,
+   * and is otherwise an ordinary mutable map.
    */
   public @NotNull Map<String, String> map() {
-    Map<String, String> result = new HashMap<>();
+    // room for the parameters of a search config as well
+    Map<String, String> result = new Query(8);
     result.put("limit", Integer.toString(limit()));
     result.put("offset", Integer.toString(offset()));
     if (!attributes().isEmpty()) result.put("attributes", String.join(",", attributes()));
@@ -0,0 +1,103 @@
+package net.riyazali.meili;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import org.jetbrains.annotations.NotNull;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// Spliterator over a range of offsets of an index's documents, fetched page by page
+// Splitting hands over the first half of the pages not yet fetched to a new spliterator, so that
+// parallel streams scan disjoint ranges of the index concurrently. Each split fetches it's own
+// pages, one at a time, on the thread traversing it.
+final class PageSpliterator<T> implements Spliterator<T> {
+
+  // fetches the page with the given offset and limit
+  interface Fetcher<T> {
+    @NotNull Page<T> fetch(int offset, int limit) throws Exception;
+  }
+
+  private final Fetcher<T> fetcher;
+
+  // max number of records in a page
+  private final int limit;
+
+  // offset of the next page to fetch
+  private long offset;
+
+  // offset at which the range ends (exclusive)
+  private final long end;
+
+  // records of the page currently being traversed, and the index of the next one
+  private List<T> page = Collections.emptyList();
+  private int next;
+
+  PageSpliterator(@NotNull Fetcher<T> fetcher, int limit, long offset, long end) {
+    checkArgument(limit > 0 && offset >= 0);
+    this.fetcher = checkNotNull(fetcher);
+    this.limit = limit;
+    this.offset = offset;
+    this.end = end;
+  }
+
+  @Override public boolean tryAdvance(@NotNull Consumer<? super T> action) {
+    while (next == page.size()) {
+      if (offset >= end) {
+        return false;
+      }
+      fetch();
+    }
+    action.accept(page.get(next++));
+    return true;
+  }
+
+  @Override public void forEachRemaining(@NotNull Consumer<? super T> action) {
+    do {
+      while (next < page.size()) {
+        action.accept(page.get(next++));
+      }
+    } while (offset < end && fetch());
+  }
+
+  // fetch the next page; returns false (and ends the range) if it's empty
+  private boolean fetch() {
+    int size = (int) Math.min(limit, end - offset);
+    try {
+      page = fetcher.fetch((int) offset, size).results();
+    } catch (RuntimeException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+    next = 0;
+
+    // fewer records than asked for means documents were deleted since the range was set up
+    offset = page.size() < size ? end : offset + size;
+    return !page.isEmpty();
+  }
+
+  @Override public Spliterator<T> trySplit() {
+    // the split must be a prefix; it can't be one while a fetched page is still being traversed
+    long pages = (end - offset) / limit;
+    if (next < page.size() || pages < 2) {
+      return null;
+    }
+
+    long mid = offset + (pages / 2) * limit;
+    Spliterator<T> prefix = new PageSpliterator<>(fetcher, limit, offset, mid);
+    offset = mid;
+    return prefix;
+  }
+
+  @Override public long estimateSize() {
+    return Math.max(0, end - offset) + (page.size() - next);
+  }
+
+  @Override public int characteristics() {
+    // not SIZED; documents may be added or deleted while the index is being scanned
+    return ORDERED | NONNULL;
+  }
+}
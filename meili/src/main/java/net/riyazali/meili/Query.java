@@ -0,0 +1,181 @@
+package net.riyazali.meili;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+// Query parameters of a request, kept as a flat array of name / value pairs in insertion order
+// It is a (fully mutable) Map so that remotes and callers can treat it like any other query, but
+// those in this package walk over the pairs using size(), name(i) and value(i) instead, which
+// doesn't allocate any entries.
+final class Query extends AbstractMap<String, String> {
+
+  // names at even and values at odd indexes
+  private String[] pairs;
+  private int size;
+
+  /* create an empty query with room for the given number of parameters */
+  Query(int capacity) {
+    this.pairs = new String[capacity * 2];
+  }
+
+  /* returns the name of the i-th parameter */
+  @NotNull String name(int i) {
+    return pairs[i * 2];
+  }
+
+  /* returns the value of the i-th parameter */
+  @NotNull String value(int i) {
+    return pairs[i * 2 + 1];
+  }
+
+  @Override public int size() {
+    return size;
+  }
+
+  @Override public boolean containsKey(Object key) {
+    return indexOf(key) >= 0;
+  }
+
+  @Override public @Nullable String get(Object key) {
+    int i = indexOf(key);
+    return i >= 0 ? value(i) : null;
+  }
+
+  @Override public @Nullable String put(@NotNull String key, @NotNull String value) {
+    int i = indexOf(key);
+    if (i >= 0) {
+      String previous = value(i);
+      pairs[i * 2 + 1] = value;
+      return previous;
+    }
+
+    if (size * 2 == pairs.length) {
+      pairs = Arrays.copyOf(pairs, Math.max(8, pairs.length * 2));
+    }
+    pairs[size * 2] = key;
+    pairs[size * 2 + 1] = value;
+    size++;
+    return null;
+  }
+
+  @Override public @Nullable String remove(Object key) {
+    int i = indexOf(key);
+    return i >= 0 ? removeAt(i) : null;
+  }
+
+  @Override public void clear() {
+    Arrays.fill(pairs, 0, size * 2, null);
+    size = 0;
+  }
+
+  // remove the i-th parameter, shifting the ones after it down; returns it's value
+  private @NotNull String removeAt(int i) {
+    String previous = value(i);
+    System.arraycopy(pairs, (i + 1) * 2, pairs, i * 2, (size - i - 1) * 2);
+    size--;
+    pairs[size * 2] = null;
+    pairs[size * 2 + 1] = null;
+    return previous;
+  }
+
+  private int indexOf(Object key) {
+    for (int i = 0; i < size; i++) {
+      if (pairs[i * 2].equals(key)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Override public @NotNull Set<Entry<String, String>> entrySet() {
+    return new AbstractSet<Entry<String, String>>() {
+      @Override public @NotNull Iterator<Entry<String, String>> iterator() {
+        return new Iterator<Entry<String, String>>() {
+          private int next;
+          private boolean removable;
+
+          @Override public boolean hasNext() {
+            return next < size;
+          }
+
+          @Override public Entry<String, String> next() {
+            if (next >= size) {
+              throw new NoSuchElementException();
+            }
+            Entry<String, String> entry = new Pair(next);
+            next++;
+            removable = true;
+            return entry;
+          }
+
+          @Override public void remove() {
+            if (!removable) {
+              throw new IllegalStateException();
+            }
+            removeAt(--next);
+            removable = false;
+          }
+        };
+      }
+
+      @Override public int size() {
+        return size;
+      }
+    };
+  }
+
+  // entry backed by the i-th pair; like those of other maps, it's only valid till the next removal
+  private final class Pair implements Entry<String, String> {
+    private final int i;
+
+    private Pair(int i) {
+      this.i = i;
+    }
+
+    @Override public @NotNull String getKey() {
+      return name(i);
+    }
+
+    @Override public @NotNull String getValue() {
+      return value(i);
+    }
+
+    @Override public @NotNull String setValue(@NotNull String value) {
+      String previous = value(i);
+      pairs[i * 2 + 1] = checkNotNull(value);
+      return previous;
+    }
+
+    @Override public boolean equals(Object o) {
+      if (!(o instanceof Entry)) return false;
+      Entry<?, ?> entry = (Entry<?, ?>) o;
+      return getKey().equals(entry.getKey()) && getValue().equals(entry.getValue());
+    }
+
+    @Override public int hashCode() {
+      return getKey().hashCode() ^ getValue().hashCode();
+    }
+
+    @Override public String toString() {
+      return getKey() + "=" + getValue();
+    }
+  }
+
+  /* returns a copy of the given map as a query */
+  static @NotNull Query copyOf(@NotNull Map<String, String> map) {
+    Query query = new Query(map.size());
+    for (Entry<String, String> entry : map.entrySet()) {
+      query.put(entry.getKey(), entry.getValue());
+    }
+    return query;
+  }
+}
@@ -1,11 +1,16 @@
 package net.riyazali.meili;
 
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 import lombok.Builder;
 import lombok.Getter;
-import lombok.Singular;
 import lombok.experimental.Accessors;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ByteString;
+import okio.Okio;
 import okio.Source;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -65,10 +70,152 @@ public interface Remote {
 
   /* Request class represents a single REST API call */
   @Accessors(fluent = true)
-  @Getter @Builder final class Request {
+  @Getter @Builder(toBuilder = true) final class Request {
     private final String path;
-    @Singular("query") private final Map<String, String> query;
-    private final Source body;
+    private final Map<String, String> query;
+    private final Body body;
+
+    public static final class RequestBuilder {
+      // whether the query is a copy made by this builder, which can be added to
+      private boolean ownsQuery;
+
+      /* add a single parameter to the request's query */
+      public RequestBuilder query(@NotNull String name, @NotNull String value) {
+        if (!ownsQuery) {
+          this.query = this.query != null ? Query.copyOf(this.query) : new Query(4);
+          this.ownsQuery = true;
+        }
+        this.query.put(name, value);
+        return this;
+      }
+
+      /* add the given parameters to the request's query */
+      public RequestBuilder query(@Nullable Map<String, String> query) {
+        if (query == null) {
+          return this;
+        }
+
+        // queries built by the configs (see PageConfig#map()) are used as-is, without copying them
+        if (this.query == null && query instanceof Query) {
+          this.query = query;
+          return this;
+        }
+
+        for (Map.Entry<String, String> entry : query.entrySet()) {
+          query(entry.getKey(), entry.getValue());
+        }
+        return this;
+      }
+
+      /* remove all parameters from the request's query */
+      public RequestBuilder clearQuery() {
+        this.query = null;
+        this.ownsQuery = false;
+        return this;
+      }
+
+      /* use the given source as request body; the source can only be consumed once */
+      public RequestBuilder body(@Nullable Source source) {
+        this.body = source != null ? new Body() {
+          @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+            sink.writeAll(source);
+          }
+
+          @Override public boolean isOneShot() {
+            return true;
+          }
+        } : null;
+        return this;
+      }
+
+      /* use the given body as request body */
+      public RequestBuilder body(@Nullable Body body) {
+        this.body = body;
+        return this;
+      }
+    }
+  }
+
+  /* Body represents the payload of a request which is written directly to the network */
+  @FunctionalInterface interface Body {
+
+    /**
+     * Write the payload to the given sink
+     */
+    void writeTo(@NotNull BufferedSink sink) throws IOException;
+
+    /**
+     * Returns the number of bytes that will be written or -1 if that count is unknown
+     */
+    default long contentLength() {
+      return -1;
+    }
+
+    /**
+     * Returns true if the payload can only be written once, so that the request can't be replayed
+     */
+    default boolean isOneShot() {
+      return false;
+    }
+
+    /**
+     * Returns a body which writes a copy of the buffer's content; the buffer itself is never
+     * consumed so the body can be written any number of times. The buffer must not be modified
+     * once handed over.
+     *
+     * @param buffer buffer containing the payload
+     */
+    static @NotNull Body of(@NotNull Buffer buffer) {
+      return new Body() {
+        @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+          // copies share the underlying segments with the buffer, so no bytes are copied here
+          buffer.copyTo(sink.getBuffer(), 0, buffer.size());
+          sink.emitCompleteSegments();
+        }
+
+        @Override public long contentLength() {
+          return buffer.size();
+        }
+      };
+    }
+
+    /**
+     * Returns a body which writes the given bytes; it can be written any number of times.
+     *
+     * @param bytes the payload
+     */
+    static @NotNull Body of(@NotNull ByteString bytes) {
+      return new Body() {
+        @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+          sink.write(bytes);
+        }
+
+        @Override public long contentLength() {
+          return bytes.size();
+        }
+      };
+    }
+
+    /**
+     * Returns a body which writes the content of the given file; it can be written any number of
+     * times. The file must not be modified once handed over.
+     *
+     * @param file file containing the payload
+     */
+    static @NotNull Body of(@NotNull Path file) throws IOException {
+      long length = Files.size(file);
+      return new Body() {
+        @Override public void writeTo(@NotNull BufferedSink sink) throws IOException {
+          try (Source source = Okio.source(file)) {
+            sink.writeAll(source);
+          }
+        }
+
+        @Override public long contentLength() {
+          return length;
+        }
+      };
+    }
   }
 
   /* Response class represents a single REST API response */
@@ -0,0 +1,40 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import org.jetbrains.annotations.NotNull;
+
+// Handy utility class to implement Remote decorators
+final class Remotes {
+  private Remotes() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  /* execute the request on the remote, dispatching to the specialised method for the verb */
+  static @NotNull Response dispatch(@NotNull Remote remote, @NotNull String method,
+      @NotNull Request request) throws IOException {
+    // implementations (and mocks) might have overridden the specialised methods
+    switch (method) {
+      case "GET":
+        return remote.get(request);
+      case "POST":
+        return remote.post(request);
+      case "PUT":
+        return remote.put(request);
+      case "DELETE":
+        return remote.delete(request);
+      default:
+        return remote.execute(method, request);
+    }
+  }
+
+  /* close the response ignoring any error */
+  static void closeQuietly(@NotNull Response response) {
+    try {
+      response.close();
+    } catch (Exception ignored) {
+      // nothing much we can do here
+    }
+  }
+}
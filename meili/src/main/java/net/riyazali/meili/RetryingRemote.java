@@ -0,0 +1,431 @@
+package net.riyazali.meili;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.Okio;
+import okio.Sink;
+import okio.Timeout;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+
+/**
+ * {@linkplain Remote} decorator that retries failed calls and stops calling a failing remote for a
+ * while.
+ *
+ * <p>
+ * Calls that fail with an {@linkplain IOException} or with a 5xx / 429 status are retried after a
+ * randomized, exponentially growing delay. By default only GET, PUT and DELETE requests are
+ * retried, along with POST requests which failed to connect and so were never sent: a POST that
+ * reached the server (say, one that timed out waiting for the response) may already have queued an
+ * update, and retrying it queues another one. Clear {@code idempotentOnly} to retry all POSTs too.
+ * Retries are paid for out of a budget which grows by the configured percentage of a call with
+ * every call, so that retries never add more than that percentage of extra load.
+ *
+ * <p>
+ * After a number of consecutive failures the circuit breaker opens, and calls fail straight away
+ * with a {@linkplain CircuitOpenException} until the open duration has passed. A single trial call
+ * is then let through; the breaker closes if it succeeds and opens again if it fails. To have a
+ * breaker per endpoint, decorate the remote of every node of a {@linkplain LoadBalancingRemote}.
+ *
+ * <p>
+ * Request bodies which can't be replayed cheaply (those of unknown length) are written once into
+ * memory, or into a temp file once they grow past the spill threshold, and replayed from there.
+ * The remote should be {@linkplain #close() closed} once done with, to stop it's scheduler.
+ * Instances of this class are thread-safe and can be safely used concurrently.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class RetryingRemote implements AsyncRemote, AutoCloseable {
+
+  private final Remote delegate;
+  private final AsyncRemote async;
+  private final Executor executor;
+
+  private final int maxAttempts;
+  private final long backoff;
+  private final long maxBackoff;
+  private final boolean idempotentOnly;
+  private final long spillBytes;
+  private final Budget budget;
+
+  private final int failureThreshold;
+  private final long openDuration;
+
+  private final ScheduledExecutorService scheduler;
+  private final boolean ownScheduler;
+
+  // circuit breaker's state
+  private final AtomicInteger failures = new AtomicInteger();
+  private final AtomicBoolean trial = new AtomicBoolean();
+  private volatile boolean open;
+  private volatile long openedAt;
+
+  // counters
+  private final LongAdder calls = new LongAdder();
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder denied = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Create a new retrying remote
+   *
+   * @param delegate         remote to send the requests to
+   * @param maxAttempts      max number of times a call is attempted; defaults to 3
+   * @param backoff          delay before the first retry, doubled for every later one; defaults
+   *                         to 100 milliseconds
+   * @param maxBackoff       max delay before a retry; defaults to 5 seconds
+   * @param budget           max extra calls sent as retries, in percent of all calls; defaults to
+   *                         10
+   * @param idempotentOnly   retry POST requests only if they were never sent; defaults to true
+   * @param failureThreshold consecutive failures after which the circuit opens; defaults to 5
+   * @param openDuration     time for which the circuit stays open; defaults to 10 seconds
+   * @param spillBytes       size after which a buffered request body is moved into a temp file;
+   *                         defaults to 8MiB
+   * @param scheduler        scheduler to time asynchronous retries on; defaults to a single
+   *                         daemon thread owned by the remote
+   * @param executor         executor to run a blocking delegate on; defaults to the common pool
+   */
+  @Builder private RetryingRemote(@NotNull Remote delegate, int maxAttempts,
+      @Nullable Duration backoff, @Nullable Duration maxBackoff, double budget,
+      boolean idempotentOnly, int failureThreshold, @Nullable Duration openDuration,
+      long spillBytes, @Nullable ScheduledExecutorService scheduler, @Nullable Executor executor) {
+    checkArgument(maxAttempts >= 0 && failureThreshold >= 0 && spillBytes >= 0);
+    this.delegate = checkNotNull(delegate);
+    this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    this.async = AsyncRemote.adapt(delegate, this.executor);
+
+    this.maxAttempts = maxAttempts > 0 ? maxAttempts : 3;
+    this.backoff = (backoff != null ? backoff : Duration.ofMillis(100)).toNanos();
+    this.maxBackoff = (maxBackoff != null ? maxBackoff : Duration.ofSeconds(5)).toNanos();
+    this.budget = new Budget(budget > 0 ? budget : 10);
+    this.idempotentOnly = idempotentOnly;
+    this.spillBytes = spillBytes > 0 ? spillBytes : 8 * 1024 * 1024;
+
+    this.failureThreshold = failureThreshold > 0 ? failureThreshold : 5;
+    this.openDuration = (openDuration != null ? openDuration : Duration.ofSeconds(10)).toNanos();
+
+    this.ownScheduler = scheduler == null;
+    this.scheduler = scheduler != null ? scheduler : Executors.newSingleThreadScheduledExecutor(
+        runnable -> {
+          Thread thread = new Thread(runnable, "meili-retry");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
+  // builder with the defaults of primitive parameters filled in; lombok generates the rest
+  public static final class RetryingRemoteBuilder {
+    private boolean idempotentOnly = true;
+  }
+
+  @Override public @NotNull Response execute(
+      @NotNull String method, @NotNull Request request) throws IOException {
+    calls.increment();
+    budget.earn();
+
+    try (Replayable replayable = Replayable.of(request, spillBytes)) {
+      for (int attempt = 1; ; attempt++) {
+        if (!acquire()) {
+          throw new CircuitOpenException();
+        }
+
+        Response response;
+        try {
+          response = Remotes.dispatch(delegate, method, replayable.request);
+        } catch (IOException e) {
+          failure();
+          if (!retry(method, attempt, e)) {
+            throw e;
+          }
+          sleep(delay(attempt));
+          continue;
+        }
+
+        if (!isFailure(response.status())) {
+          success();
+          return response;
+        }
+
+        failure();
+        if (!retry(method, attempt, null)) {
+          return response;
+        }
+        Remotes.closeQuietly(response);
+        sleep(delay(attempt));
+      }
+    }
+  }
+
+  @Override public @NotNull CompletableFuture<Response> executeAsync(
+      @NotNull String method, @NotNull Request request) {
+    calls.increment();
+    budget.earn();
+
+    // buffering the body might block, so it's done on the executor
+    CompletableFuture<Response> result = new CompletableFuture<>();
+    executor.execute(() -> {
+      try {
+        attempt(method, Replayable.of(request, spillBytes), 1, result);
+      } catch (IOException | RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return result;
+  }
+
+  /**
+   * Returns a snapshot of the remote's counters
+   */
+  public @NotNull Stats stats() {
+    return new Stats(calls.sum(), retries.sum(), denied.sum(), rejected.sum(), open);
+  }
+
+  /**
+   * Stop the scheduler, if it's owned by the remote. The delegate is not closed.
+   */
+  @Override public void close() {
+    if (ownScheduler) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  // make a single asynchronous attempt, scheduling the next one if it fails
+  private void attempt(@NotNull String method, @NotNull Replayable replayable, int attempt,
+      @NotNull CompletableFuture<Response> result) {
+    if (result.isDone()) {
+      replayable.close(); // cancelled by the caller
+      return;
+    }
+    if (!acquire()) {
+      replayable.close();
+      result.completeExceptionally(new CircuitOpenException());
+      return;
+    }
+
+    async.executeAsync(method, replayable.request).whenComplete((response, throwable) -> {
+      Throwable cause =
+          throwable instanceof CompletionException ? throwable.getCause() : throwable;
+      if (cause == null && !isFailure(response.status())) {
+        success();
+        replayable.close();
+        if (!result.complete(response)) {
+          Remotes.closeQuietly(response);
+        }
+        return;
+      }
+
+      failure();
+      if ((cause == null || cause instanceof IOException) && retry(method, attempt, cause)) {
+        if (response != null) {
+          Remotes.closeQuietly(response);
+        }
+        scheduler.schedule(() -> attempt(method, replayable, attempt + 1, result),
+            delay(attempt), TimeUnit.NANOSECONDS);
+        return;
+      }
+
+      replayable.close();
+      if (cause != null) {
+        result.completeExceptionally(cause);
+      } else if (!result.complete(response)) {
+        Remotes.closeQuietly(response);
+      }
+    });
+  }
+
+  // should the call, which failed with the given error (or a failure status), be attempted again?
+  private boolean retry(@NotNull String method, int attempt, @Nullable Throwable error) {
+    if (attempt >= maxAttempts) {
+      return false;
+    }
+    // a post that failed to connect never reached the server, so it's safe to send it again
+    if (idempotentOnly && "POST".equals(method) && !(error instanceof ConnectException)) {
+      return false;
+    }
+    if (!budget.spend()) {
+      denied.increment();
+      return false;
+    }
+    retries.increment();
+    return true;
+  }
+
+  // returns the (randomized) delay before the next attempt, in nanos
+  private long delay(int attempt) {
+    long ceiling = Math.min(maxBackoff, backoff << Math.min(attempt - 1, 30));
+    return ThreadLocalRandom.current().nextLong(Math.max(1, ceiling) + 1);
+  }
+
+  // returns true if a call may go through the circuit breaker
+  private boolean acquire() {
+    // once open, let a single trial call through after the open duration has passed
+    if (open
+        && (System.nanoTime() - openedAt < openDuration || !trial.compareAndSet(false, true))) {
+      rejected.increment();
+      return false;
+    }
+    return true;
+  }
+
+  private void success() {
+    failures.set(0);
+    open = false;
+    trial.set(false);
+  }
+
+  private void failure() {
+    if (open || failures.incrementAndGet() >= failureThreshold) {
+      openedAt = System.nanoTime();
+      open = true;
+      trial.set(false);
+    }
+  }
+
+  private static boolean isFailure(int status) {
+    return status >= 500 || status == 429;
+  }
+
+  private static void sleep(long nanos) throws IOException {
+    try {
+      TimeUnit.NANOSECONDS.sleep(nanos);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+  }
+
+  /* CircuitOpenException is thrown when a call isn't made because the circuit breaker is open */
+  public static final class CircuitOpenException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private CircuitOpenException() {
+      super("circuit breaker is open");
+    }
+  }
+
+  // request whose body can be written any number of times
+  private static final class Replayable implements AutoCloseable {
+    private final Request request;
+    private final @Nullable Path file;
+
+    private Replayable(@NotNull Request request, @Nullable Path file) {
+      this.request = request;
+      this.file = file;
+    }
+
+    // buffer the request's body (if required) so that it can be replayed
+    static @NotNull Replayable of(@NotNull Request request, long spillBytes) throws IOException {
+      Body body = request.body();
+      if (body == null || (body.contentLength() >= 0 && !body.isOneShot())) {
+        return new Replayable(request, null);
+      }
+
+      SpillingSink spill = new SpillingSink(spillBytes);
+      try (BufferedSink sink = Okio.buffer(spill)) {
+        body.writeTo(sink);
+      } catch (IOException | RuntimeException e) {
+        if (spill.file != null) {
+          Files.deleteIfExists(spill.file);
+        }
+        throw e;
+      }
+
+      Body copy = spill.file != null ? Body.of(spill.file) : Body.of(spill.buffer);
+      return new Replayable(request.toBuilder().body(copy).build(), spill.file);
+    }
+
+    @Override public void close() {
+      if (file != null) {
+        try {
+          Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+          // nothing much we can do here
+        }
+      }
+    }
+  }
+
+  // sink that keeps the bytes in memory till they grow past the threshold, and in a temp file after
+  private static final class SpillingSink implements Sink {
+    private final long threshold;
+    private final Buffer buffer = new Buffer();
+    private @Nullable Path file;
+    private @Nullable Sink out;
+
+    private SpillingSink(long threshold) {
+      this.threshold = threshold;
+    }
+
+    @Override public void write(@NotNull Buffer source, long byteCount) throws IOException {
+      if (out == null && buffer.size() + byteCount > threshold) {
+        file = Files.createTempFile("meili-", ".json");
+        out = Okio.sink(file);
+        out.write(buffer, buffer.size());
+      }
+
+      if (out != null) {
+        out.write(source, byteCount);
+      } else {
+        buffer.write(source, byteCount);
+      }
+    }
+
+    @Override public void flush() throws IOException {
+      if (out != null) {
+        out.flush();
+      }
+    }
+
+    @Override public @NotNull Timeout timeout() {
+      return Timeout.NONE;
+    }
+
+    @Override public void close() throws IOException {
+      if (out != null) {
+        out.close();
+      }
+    }
+  }
+
+  /* Stats represents a snapshot of the remote's counters */
+  @Accessors(fluent = true)
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @ToString @Getter public static final class Stats {
+    // number of calls
+    private final long calls;
+    // number of retries sent
+    private final long retries;
+    // number of retries not sent for lack of budget
+    private final long denied;
+    // number of calls rejected by the open circuit breaker
+    private final long rejected;
+    // is the circuit breaker open?
+    private final boolean open;
+  }
+}
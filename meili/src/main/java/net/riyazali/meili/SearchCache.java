@@ -0,0 +1,239 @@
+package net.riyazali.meili;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import lombok.experimental.Accessors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+
+/**
+ * SearchCache caches the results of {@linkplain Index#search(SearchConfig) searches} on the client.
+ *
+ * <p>
+ * Entries are keyed on the index's uid and the search's canonicalized query parameters, and are
+ * bounded by the total size of the (encoded) responses they were decoded from. The least recently
+ * used entries are evicted first once that bound is exceeded. An entry is served for the configured
+ * time-to-live, after which it is served stale (while being refreshed in the background) for the
+ * configured stale-while-revalidate window.
+ *
+ * <p>
+ * All the entries of an index are invalidated once an {@linkplain Update update} issued through
+ * that index is seen as {@linkplain Update.Status#PROCESSED processed} (ie. when it is refreshed or
+ * tracked till completion). A cache can be shared by many indexes.
+ *
+ * <p>
+ * Pages handed out by the cache are shared among all the callers and must not be modified. Instances
+ * of this class are thread-safe and can be safely used concurrently.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ * @see Index#cache(SearchCache)
+ */
+public final class SearchCache {
+
+  private final long maxBytes;
+  private final long ttl;
+  private final long staleWhileRevalidate;
+  private final Executor executor;
+
+  // cached entries in access order; guarded by this
+  private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private long bytes;
+
+  // bumped every time an index is invalidated, so that in-flight loads aren't cached
+  private final Map<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  // counters
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder staleHits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Create a new search cache
+   *
+   * @param maxBytes             max total size of the cached responses; defaults to 16MiB
+   * @param ttl                  time for which an entry is fresh; defaults to 1 minute
+   * @param staleWhileRevalidate time (after ttl) for which a stale entry is served while it's being
+   *                             refreshed; defaults to zero
+   * @param executor             executor to refresh stale entries on; defaults to the common pool
+   */
+  @Builder private SearchCache(long maxBytes, @Nullable Duration ttl,
+      @Nullable Duration staleWhileRevalidate, @Nullable Executor executor) {
+    this.maxBytes = maxBytes > 0 ? maxBytes : 16 * 1024 * 1024;
+    this.ttl = (ttl != null ? ttl : Duration.ofMinutes(1)).toNanos();
+    this.staleWhileRevalidate =
+        (staleWhileRevalidate != null ? staleWhileRevalidate : Duration.ZERO).toNanos();
+    this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    checkArgument(this.ttl >= 0 && this.staleWhileRevalidate >= 0);
+  }
+
+  /**
+   * Invalidate all the entries of the given index
+   *
+   * @param uid the index's uid
+   */
+  public void invalidate(@NotNull String uid) {
+    generation(uid).incrementAndGet();
+
+    String prefix = prefix(uid);
+    synchronized (this) {
+      Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+      while (it.hasNext()) {
+        Map.Entry<String, Entry> next = it.next();
+        if (next.getKey().startsWith(prefix)) {
+          bytes -= next.getValue().weight;
+          it.remove();
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidate all the entries
+   */
+  public void invalidateAll() {
+    generations.values().forEach(AtomicLong::incrementAndGet);
+    synchronized (this) {
+      entries.clear();
+      bytes = 0;
+    }
+  }
+
+  /**
+   * Returns a snapshot of the cache's counters
+   */
+  public @NotNull Stats stats() {
+    synchronized (this) {
+      return new Stats(hits.sum(), staleHits.sum(), misses.sum(), evictions.sum(),
+          entries.size(), bytes);
+    }
+  }
+
+  // returns the (cached) page for the given search
+  <T> @NotNull SearchPage<T> get(@NotNull Index<T> index, @NotNull SearchConfig config)
+      throws Exception {
+    // lazily and eagerly decoded pages are cached apart as only the former can hand out raw hits
+    String key = prefix(index.uid()) + new TreeMap<>(config.map()) + (config.lazy() ? "~" : "");
+
+    Entry entry;
+    synchronized (this) {
+      entry = entries.get(key);
+    }
+
+    if (entry != null) {
+      long age = System.nanoTime() - entry.loadedAt;
+      if (age <= ttl) {
+        hits.increment();
+        return entry.page();
+      }
+
+      if (age <= ttl + staleWhileRevalidate) {
+        staleHits.increment();
+        if (entry.refreshing.compareAndSet(false, true)) {
+          executor.execute(() -> {
+            try {
+              load(index, config, key);
+            } catch (Exception e) {
+              entry.refreshing.set(false); // let a later request try again
+            }
+          });
+        }
+        return entry.page();
+      }
+    }
+
+    misses.increment();
+    return load(index, config, key);
+  }
+
+  // load the page from the index and cache it
+  private <T> @NotNull SearchPage<T> load(
+      @NotNull Index<T> index, @NotNull SearchConfig config, @NotNull String key)
+      throws Exception {
+    AtomicLong generation = generation(index.uid());
+    long before = generation.get();
+
+    long[] weight = new long[1];
+    SearchPage<T> page = index.searchBuffered(config, size -> weight[0] = size);
+    Entry entry = new Entry(page, weight[0] + key.length(), System.nanoTime());
+
+    synchronized (this) {
+      if (generation.get() != before || entry.weight > maxBytes) {
+        return page; // index invalidated while we were loading or entry too big to be cached
+      }
+
+      Entry previous = entries.put(key, entry);
+      bytes += entry.weight - (previous != null ? previous.weight : 0);
+
+      Iterator<Entry> it = entries.values().iterator();
+      while (bytes > maxBytes && it.hasNext()) {
+        bytes -= it.next().weight;
+        it.remove();
+        evictions.increment();
+      }
+    }
+
+    return page;
+  }
+
+  private @NotNull AtomicLong generation(@NotNull String uid) {
+    return generations.computeIfAbsent(uid, ignored -> new AtomicLong());
+  }
+
+  private static @NotNull String prefix(@NotNull String uid) {
+    return uid + '\u0000';
+  }
+
+  // a single cached page
+  private static final class Entry {
+    private final SearchPage<?> page;
+    private final long weight;
+    private final long loadedAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    private Entry(@NotNull SearchPage<?> page, long weight, long loadedAt) {
+      this.page = page;
+      this.weight = weight;
+      this.loadedAt = loadedAt;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @NotNull SearchPage<T> page() {
+      return (SearchPage<T>) page;
+    }
+  }
+
+  /* Stats represents a snapshot of the cache's counters */
+  @Accessors(fluent = true)
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  @ToString @Getter public static final class Stats {
+    // number of lookups served from a fresh entry
+    private final long hits;
+    // number of lookups served from a stale entry
+    private final long staleHits;
+    // number of lookups that had to go to the server
+    private final long misses;
+    // number of entries evicted to stay within the size bound
+    private final long evictions;
+    // number of entries currently cached
+    private final int entries;
+    // total size of the entries currently cached
+    private final long bytes;
+  }
+}
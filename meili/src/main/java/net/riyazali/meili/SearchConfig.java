@@ -13,7 +13,7 @@ import org.jetbrains.annotations.Nullable;
 import static net.riyazali.meili.Precondition.checkNotNull;
 
 @Getter @Accessors(fluent = true)
-@SuperBuilder public class SearchConfig extends PageConfig {
+@SuperBuilder(toBuilder = true) public class SearchConfig extends PageConfig {
   // the query string
   @NotNull private final String query;
 
@@ -32,6 +32,9 @@ import static net.riyazali.meili.Precondition.checkNotNull;
   // defines whether an object that contains information about the matches should be returned or not.
   private final boolean matches;
 
+  // decode hits only once they are accessed (see SearchPage#hits()); not sent to the api
+  private final boolean lazy;
+
   /**
    * Generate a Map&lt;String, String&gt; from the config
    */
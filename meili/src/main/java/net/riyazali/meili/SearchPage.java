@@ -1,12 +1,18 @@
 package net.riyazali.meili;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import lombok.Getter;
 import lombok.experimental.Accessors;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.TestOnly;
 
+import static net.riyazali.meili.Precondition.checkState;
+
 /**
  * SearchPage represents a single page from the search result set
  *
@@ -15,6 +21,14 @@ import org.jetbrains.annotations.TestOnly;
 @Accessors(fluent = true)
 public class SearchPage<T> extends Page<T> {
 
+  // field names of the api's response, used when scanning it for lazily decoded pages
+  private static final byte[] HITS = "hits".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] NB_HITS = "nbHits".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] EXHAUSTIVE_NB_HITS =
+      "exhaustiveNbHits".getBytes(StandardCharsets.UTF_8);
+  private static final byte[] PROCESSING_TIME_MS =
+      "processingTimeMs".getBytes(StandardCharsets.UTF_8);
+
   // total elements in resultset reported by the api
   @Getter private final long count;
 
@@ -24,6 +38,9 @@ public class SearchPage<T> extends Page<T> {
   // query duration / time taken for execution
   @Getter private final Duration processingTime;
 
+  // undecoded hits, only available if the page is decoded lazily
+  private final @Nullable List<Hit> hits;
+
   /**
    * Create a new search page from the given result set and configuration
    *
@@ -31,17 +48,74 @@ public class SearchPage<T> extends Page<T> {
    * @param config   fetch configuration used
    */
   SearchPage(@NotNull Response<T> response, @NotNull SearchConfig config) {
-    super(response.hits(), config);
+    this(response.hits(), null, response.nbHits(), response.exhaustiveNbHits(),
+        response.processingTimeMs(), config);
+  }
+
+  private SearchPage(@NotNull List<T> results, @Nullable List<Hit> hits, long count,
+      boolean isCountExhaustive, long processingTimeMs, @NotNull SearchConfig config) {
+    super(results, config);
 
-    this.count = response.nbHits();
-    this.isCountExhaustive = response.exhaustiveNbHits();
-    this.processingTime = Duration.ofMillis(response.processingTimeMs());
+    this.hits = hits;
+    this.count = count;
+    this.isCountExhaustive = isCountExhaustive;
+    this.processingTime = Duration.ofMillis(processingTimeMs);
   }
 
   @Override public SearchConfig config() {
     return (SearchConfig) super.config();
   }
 
+  /**
+   * Returns undecoded views over the page's hits, which can be used to read a hit's fields without
+   * decoding it
+   *
+   * @throws IllegalStateException if the page isn't decoded lazily
+   * @see SearchConfig#lazy()
+   */
+  public @NotNull List<Hit> hits() {
+    checkState(hits != null);
+    return hits;
+  }
+
+  /**
+   * Create a search page which decodes it's hits only once they are accessed. The json is only
+   * scanned for the bounds of each hit here.
+   *
+   * @param json       the api's response
+   * @param config     fetch configuration used
+   * @param decoder    decoder to decode the hits with
+   * @param primaryKey name of the index's primary key
+   */
+  static <T> @NotNull SearchPage<T> lazy(@NotNull byte[] json, @NotNull SearchConfig config,
+      @NotNull Encoder.TypeDecoder<T> decoder, @NotNull String primaryKey) {
+    Hit[] hits = new Hit[0];
+    long count = 0, processingTimeMs = 0;
+    boolean isCountExhaustive = false;
+
+    int[] fields = JsonScanner.fields(json, 0);
+    for (int i = 0; i < fields.length; i += 4) {
+      int name = fields[i], nameEnd = fields[i + 1], value = fields[i + 2], end = fields[i + 3];
+      if (JsonScanner.matches(json, name, nameEnd, HITS) && json[value] == '[') {
+        int[] elements = JsonScanner.elements(json, value);
+        hits = new Hit[elements.length / 2];
+        for (int j = 0; j < hits.length; j++) {
+          hits[j] = new Hit(json, elements[2 * j], elements[2 * j + 1], primaryKey);
+        }
+      } else if (JsonScanner.matches(json, name, nameEnd, NB_HITS)) {
+        count = Long.parseLong(JsonScanner.text(json, value, end));
+      } else if (JsonScanner.matches(json, name, nameEnd, EXHAUSTIVE_NB_HITS)) {
+        isCountExhaustive = json[value] == 't';
+      } else if (JsonScanner.matches(json, name, nameEnd, PROCESSING_TIME_MS)) {
+        processingTimeMs = Long.parseLong(JsonScanner.text(json, value, end));
+      }
+    }
+
+    return new SearchPage<>(new LazyHits<>(hits, decoder),
+        Collections.unmodifiableList(Arrays.asList(hits)), count, isCountExhaustive,
+        processingTimeMs, config);
+  }
+
   // Response represents the response we get from the api
   // this class is for use with encoder.decode method which might reflectively
   // access the fields here to de-serialize the response
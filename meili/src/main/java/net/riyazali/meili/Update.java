@@ -1,6 +1,8 @@
 package net.riyazali.meili;
 
 import java.time.ZonedDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -69,7 +71,7 @@ import static net.riyazali.meili.Precondition.checkNotNull;
   // ------ - - - - -
 
   @ToString.Exclude
-  @Getter(AccessLevel.NONE)
+  @Getter(AccessLevel.PACKAGE)
   @Setter(AccessLevel.PACKAGE)
   @Nullable private transient Index<?> index;
 
@@ -78,13 +80,9 @@ import static net.riyazali.meili.Precondition.checkNotNull;
   @Setter(AccessLevel.PACKAGE)
   @Nullable private transient Remote remote;
 
-  @ToString.Exclude
-  @Getter(AccessLevel.NONE)
-  @Setter(AccessLevel.PACKAGE)
-  @Nullable private transient Encoder encoder;
-
   // copy copies the details from other into self
-  private @NotNull Update copy(@NotNull Update other) {
+  @NotNull Update copy(@NotNull Update other) {
+    Status previous = this.status;
     this.updateId = other.updateId();
     this.status = other.status();
     this.type = other.type();
@@ -92,6 +90,12 @@ import static net.riyazali.meili.Precondition.checkNotNull;
     this.duration = other.duration();
     this.enqueuedAt = other.enqueuedAt();
     this.processedAt = other.processedAt();
+
+    // let the index know so that it can invalidate any cached state
+    Index<?> index = this.index;
+    if (index != null && previous != Status.PROCESSED && status == Status.PROCESSED) {
+      index.processed(this);
+    }
     return this;
   }
 
@@ -112,19 +116,37 @@ import static net.riyazali.meili.Precondition.checkNotNull;
    * Refresh fetches / updates the update from the remote service
    */
   public @NotNull Update refresh() throws Exception {
-    Index<?> index = checkNotNull(this.index);
     Remote remote = checkNotNull(this.remote);
-    Encoder encoder = checkNotNull(this.encoder);
+    try (Response response = remote.get(request())) {
+      return read(response);
+    }
+  }
 
-    Request request = Request.builder().path(
-        String.format("/indexes/%s/updates/%s", index.uid(), updateId())).build();
+  /**
+   * Asynchronously fetch / update the update from the remote service
+   *
+   * @param executor executor to decode the response on
+   * @return future that completes with this update once it is refreshed
+   */
+  public @NotNull CompletableFuture<Update> refreshAsync(@NotNull Executor executor) {
+    Remote remote = checkNotNull(this.remote);
+    return Futures.handle(
+        AsyncRemote.adapt(remote, executor).getAsync(request()), executor, this::read);
+  }
 
-    try (Response response = remote.get(request)) {
-      if (response.status() != 200) {
-        throw new RuntimeException("error fetching update details");
-      }
+  // request to fetch update's details from the remote
+  private @NotNull Request request() {
+    Index<?> index = checkNotNull(this.index);
+    return Request.builder().path(index.path() + "/updates/" + updateId()).build();
+  }
 
-      return copy(encoder.decode(response.body(), Update.class));
+  // read update's details from response into self
+  private @NotNull Update read(@NotNull Response response) {
+    Index<?> index = checkNotNull(this.index);
+    if (response.status() != 200) {
+      throw new RuntimeException("error fetching update details");
     }
+
+    return copy(index.updateDecoder().decode(checkNotNull(response.body())));
   }
 }
@@ -0,0 +1,234 @@
+package net.riyazali.meili;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.Builder;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static net.riyazali.meili.Precondition.checkArgument;
+import static net.riyazali.meili.Precondition.checkNotNull;
+import static net.riyazali.meili.Precondition.checkState;
+
+/**
+ * UpdateTracker waits for many {@linkplain Update updates} to complete using a single poll loop.
+ *
+ * <p>
+ * Instead of polling every update individually, the tracker fetches the list of updates of each
+ * index (with pending updates) once per interval and completes the futures of all the updates which
+ * are {@linkplain Update#done() done}. The interval starts at the configured minimum and is doubled
+ * (up to the configured maximum) every time a poll doesn't complete any update.
+ *
+ * <p>
+ * Pair it with {@linkplain Index#refreshOnWrite(boolean) refreshOnWrite(false)} to skip the extra
+ * round-trip made by write operations to fetch the update's status.
+ *
+ * <p>
+ * Instances of this class are thread-safe and can be safely used concurrently.
+ *
+ * @author Riyaz Ali (me@riyazali.net)
+ */
+public final class UpdateTracker implements AutoCloseable {
+
+  private final long minInterval;
+  private final long maxInterval;
+  private final Executor executor;
+
+  // runs the poll loop
+  private final ScheduledExecutorService scheduler;
+
+  // pending updates by index uid, and by update id
+  private final Map<String, Tracked> indexes = new ConcurrentHashMap<>();
+
+  // current poll interval (in nanos) and whether a poll is scheduled; guarded by this
+  private long interval;
+  private boolean scheduled;
+  private boolean closed;
+
+  /**
+   * Create a new update tracker
+   *
+   * @param minInterval min interval between two polls; defaults to 100ms
+   * @param maxInterval max interval between two polls; defaults to 5s
+   * @param executor    executor to complete the futures on; defaults to the common pool
+   */
+  @Builder private UpdateTracker(@Nullable Duration minInterval, @Nullable Duration maxInterval,
+      @Nullable Executor executor) {
+    this.minInterval = (minInterval != null ? minInterval : Duration.ofMillis(100)).toNanos();
+    this.maxInterval = (maxInterval != null ? maxInterval : Duration.ofSeconds(5)).toNanos();
+    this.executor = executor != null ? executor : ForkJoinPool.commonPool();
+    checkArgument(this.minInterval > 0 && this.maxInterval >= this.minInterval);
+
+    this.interval = this.minInterval;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "meili-update-tracker");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Track the given update until it is done.
+   *
+   * @param update update to track; must have been returned by an {@linkplain Index index}
+   * @return future that completes with the (same) update once it is done
+   */
+  public @NotNull CompletableFuture<Update> track(@NotNull Update update) {
+    Index<?> index = update.index();
+    checkArgument(index != null);
+
+    CompletableFuture<Update> future = new CompletableFuture<>();
+    if (update.done()) {
+      future.complete(update);
+      return future;
+    }
+
+    synchronized (this) {
+      checkState(!closed);
+      Pending pending = indexes.computeIfAbsent(index.uid(), uid -> new Tracked(index))
+          .pending.putIfAbsent(update.updateId(), new Pending(update, future));
+      if (pending != null) {
+        // already tracked (maybe through a different instance); piggyback on the existing future
+        return pending.future.thenApply(done -> done == update ? update : update.copy(done));
+      }
+
+      interval = minInterval; // new work; poll eagerly again
+      if (!scheduled) {
+        scheduled = true;
+        scheduler.schedule(this::poll, interval, TimeUnit.NANOSECONDS);
+      }
+    }
+
+    return future;
+  }
+
+  /**
+   * Track all the given updates until they are done.
+   *
+   * @param updates updates to track
+   * @return future that completes once all the updates are done
+   */
+  public @NotNull CompletableFuture<Void> trackAll(@NotNull Collection<Update> updates) {
+    return CompletableFuture.allOf(
+        updates.stream().map(this::track).toArray(CompletableFuture[]::new));
+  }
+
+  /**
+   * Stop polling and fail the futures of all updates which are still pending
+   */
+  @Override public void close() {
+    synchronized (this) {
+      closed = true;
+    }
+
+    scheduler.shutdownNow();
+    for (Tracked tracked : indexes.values()) {
+      for (Pending pending : tracked.pending.values()) {
+        pending.future.completeExceptionally(new IllegalStateException("tracker closed"));
+      }
+    }
+    indexes.clear();
+  }
+
+  // poll the updates of all indexes with pending updates
+  private void poll() {
+    boolean progress = false;
+    boolean remaining = false;
+
+    try {
+      for (Tracked tracked : indexes.values()) {
+        if (tracked.pending.isEmpty()) {
+          continue;
+        }
+
+        List<Update> updates;
+        try {
+          updates = fetch(tracked.index);
+        } catch (Exception e) {
+          remaining = true; // might be a transient failure; try again in next round
+          continue;
+        }
+
+        for (Update update : updates) {
+          Pending pending = tracked.pending.get(update.updateId());
+          if (pending != null && update.done()) {
+            tracked.pending.remove(update.updateId());
+            complete(pending, update);
+            progress = true;
+          }
+        }
+
+        remaining |= !tracked.pending.isEmpty();
+      }
+    } finally {
+      // always reschedule, else a single failure would leave every tracked future hanging
+      synchronized (this) {
+        interval = progress ? minInterval : Math.min(maxInterval, interval * 2);
+        // check indexes again as updates might have been added while we were polling
+        scheduled = !closed && (remaining || indexes.values().stream().anyMatch(Tracked::busy));
+        if (scheduled) {
+          scheduler.schedule(this::poll, interval, TimeUnit.NANOSECONDS);
+        }
+      }
+    }
+  }
+
+  // complete the pending update's future with the update's details, or fail it if that fails
+  private void complete(@NotNull Pending pending, @NotNull Update update) {
+    try {
+      pending.update.copy(update);
+      executor.execute(() -> pending.future.complete(pending.update));
+    } catch (Throwable t) {
+      pending.future.completeExceptionally(t);
+    }
+  }
+
+  // fetch the list of all updates of the given index
+  private static @NotNull List<Update> fetch(@NotNull Index<?> index) throws Exception {
+    Request request = Request.builder().path(index.path() + "/updates").build();
+
+    try (Response response = index.remote().get(request)) {
+      if (response.status() != 200) {
+        throw new RuntimeException("error fetching update details");
+      }
+
+      return index.updatesDecoder().decode(checkNotNull(response.body()));
+    }
+  }
+
+  // updates pending on a single index
+  private static final class Tracked {
+    private final Index<?> index;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    private Tracked(@NotNull Index<?> index) {
+      this.index = index;
+    }
+
+    private boolean busy() {
+      return !pending.isEmpty();
+    }
+  }
+
+  // a single update along with it's future
+  private static final class Pending {
+    private final Update update;
+    private final CompletableFuture<Update> future;
+
+    private Pending(@NotNull Update update, @NotNull CompletableFuture<Update> future) {
+      this.update = update;
+      this.future = future;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package net.riyazali.meili.utils;
+
+import java.io.IOException;
+import okio.BufferedSink;
+import org.jetbrains.annotations.NotNull;
+
+// Utility class containing methods to write json fragments directly to a sink
+public final class JsonUtils {
+  private JsonUtils() {
+    throw new AssertionError("no instances allowed");
+  }
+
+  // write the value as a quoted and escaped json string
+  public static void writeString(@NotNull BufferedSink sink, @NotNull String value)
+      throws IOException {
+    sink.writeByte('"');
+    int last = 0;
+    for (int i = 0, length = value.length(); i < length; i++) {
+      char c = value.charAt(i);
+      String replacement;
+      if (c == '"') {
+        replacement = "\\\"";
+      } else if (c == '\\') {
+        replacement = "\\\\";
+      } else if (c < 0x20) {
+        replacement = String.format("\\u%04x", (int) c);
+      } else {
+        continue;
+      }
+
+      if (last < i) {
+        sink.writeUtf8(value, last, i);
+      }
+      sink.writeUtf8(replacement);
+      last = i + 1;
+    }
+
+    if (last < value.length()) {
+      sink.writeUtf8(value, last, value.length());
+    }
+    sink.writeByte('"');
+  }
+
+  // write the value as a json number if it's a number, else as a json string
+  public static void writeScalar(@NotNull BufferedSink sink, @NotNull Object value)
+      throws IOException {
+    if (value instanceof Long || value instanceof Integer
+        || value instanceof Short || value instanceof Byte) {
+      sink.writeDecimalLong(((Number) value).longValue());
+    } else {
+      writeString(sink, value.toString());
+    }
+  }
+}
@@ -1,7 +1,13 @@
 package net.riyazali.meili.utils;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Objects;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
 import org.jetbrains.annotations.NotNull;
@@ -12,10 +18,32 @@ public final class ReflectionUtils {
     throw new AssertionError("no instances allowed");
   }
 
+  // returns a parameterized type, such as List<T>; it's equal to (and has the same hash code as)
+  // any other instance describing the same type
   public static @NotNull Type getParameterized(Type owner, Type raw, Type... arguments) {
     return new ParameterizedTypeImpl(owner, raw, arguments);
   }
 
+  // returns a method handle of type (Object)Object which reads the named field of the class
+  // the field is looked up in the class and then in it's super classes
+  public static @NotNull MethodHandle getter(@NotNull Class<?> klass, @NotNull String name) {
+    for (Class<?> type = klass; type != null; type = type.getSuperclass()) {
+      try {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return MethodHandles.lookup().unreflectGetter(field)
+            .asType(MethodType.methodType(Object.class, Object.class));
+      } catch (NoSuchFieldException ignored) {
+        // look into the super class
+      } catch (IllegalAccessException e) {
+        throw new IllegalArgumentException(e);
+      }
+    }
+
+    throw new IllegalArgumentException(
+        String.format("class %s does not contain field %s", klass.getCanonicalName(), name));
+  }
+
   // a very basic implementation of ParameterizedType
   // sufficient for our use case
   @AllArgsConstructor(access = AccessLevel.PRIVATE)
@@ -43,5 +71,29 @@ public final class ReflectionUtils {
     @Override public Type getOwnerType() {
       return ownerType;
     }
+
+    // equal to any other ParameterizedType (including the jdk's own) describing the same type, so
+    // that types built here can be used as keys of the encoders' caches
+    @Override public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof ParameterizedType)) return false;
+      ParameterizedType that = (ParameterizedType) o;
+      return Objects.equals(ownerType, that.getOwnerType())
+          && Objects.equals(raw, that.getRawType())
+          && Arrays.equals(typeArguments, that.getActualTypeArguments());
+    }
+
+    // same as the jdk's own implementation
+    @Override public int hashCode() {
+      return Arrays.hashCode(typeArguments) ^ Objects.hashCode(ownerType) ^ Objects.hashCode(raw);
+    }
+
+    @Override public String toString() {
+      StringBuilder name = new StringBuilder(raw.getTypeName()).append('<');
+      for (int i = 0; i < typeArguments.length; i++) {
+        name.append(i == 0 ? "" : ", ").append(typeArguments[i].getTypeName());
+      }
+      return name.append('>').toString();
+    }
   }
 }
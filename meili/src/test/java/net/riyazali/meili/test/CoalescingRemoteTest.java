@@ -0,0 +1,90 @@
+package net.riyazali.meili.test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.CoalescingRemote;
+import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import net.riyazali.meili.test.utils.Movie;
+import net.riyazali.meili.test.utils.StubResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CoalescingRemoteTest {
+
+  // mock for external services
+  @Mock Remote remote;
+
+  @DisplayName("verify identical concurrent reads share a single call")
+  @Test void verifyConcurrentReadsAreCoalesced() throws Exception {
+    // given
+    Movie movie = Movie.read().get(0);
+    CountDownLatch entered = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(remote.get(any())).thenAnswer(i -> {
+      entered.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return StubResponse.ok(movie);
+    });
+
+    CoalescingRemote coalescing = CoalescingRemote.create(remote);
+    Request request = Request.builder().path("/indexes/movies/documents/0").build();
+
+    // when
+    CompletableFuture<Response> first =
+        CompletableFuture.supplyAsync(() -> get(coalescing, request));
+    entered.await(5, TimeUnit.SECONDS);
+    CompletableFuture<Response> second =
+        CompletableFuture.supplyAsync(() -> get(coalescing, request));
+    while (coalescing.coalesced() == 0) {
+      Thread.sleep(1);
+    }
+    release.countDown();
+
+    // then
+    verify(remote, times(1)).get(any());
+    assertEquals(movie, GsonEncoder.create().decode(first.get().body(), Movie.class));
+    assertEquals(movie, GsonEncoder.create().decode(second.get().body(), Movie.class));
+  }
+
+  @DisplayName("verify reads nobody shares are handed over without buffering")
+  @Test void verifyLoneReadsAreNotBuffered() throws Exception {
+    // given
+    Response response = StubResponse.ok(Movie.read().get(0));
+    when(remote.get(any())).thenReturn(response);
+
+    CoalescingRemote coalescing = CoalescingRemote.create(remote);
+    Request request = Request.builder().path("/indexes/movies/documents/0").build();
+
+    // when
+    Response sync = coalescing.get(request);
+    Response async = coalescing.getAsync(request).get(5, TimeUnit.SECONDS);
+
+    // then
+    assertSame(response, sync);
+    assertSame(response, async);
+    assertEquals(0, coalescing.coalesced());
+  }
+
+  private static Response get(Remote remote, Request request) {
+    try {
+      return remote.get(request);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,136 @@
+package net.riyazali.meili.test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.HedgingRemote;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import net.riyazali.meili.test.utils.Movie;
+import net.riyazali.meili.test.utils.StubResponse;
+import okio.Buffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HedgingRemoteTest {
+
+  // mock for external services
+  @Mock Remote remote;
+
+  // whether the call running on the current thread was sent as a hedge
+  final ThreadLocal<Boolean> hedge = ThreadLocal.withInitial(() -> false);
+
+  // executor that runs every call on a thread of it's own, marking those sent as hedges (which
+  // are sent from the remote's scheduler) so that the slow call doesn't depend on thread timing
+  final Executor threads = task -> {
+    boolean hedged = "meili-hedge".equals(Thread.currentThread().getName());
+    new Thread(() -> {
+      hedge.set(hedged);
+      task.run();
+    }).start();
+  };
+
+  @DisplayName("verify a slow read is hedged and the faster response is used")
+  @Test void verifySlowReadIsHedged() throws Exception {
+    // given
+    Movie movie = Movie.read().get(0);
+    CountDownLatch release = new CountDownLatch(1);
+    when(remote.get(any())).thenAnswer(i -> {
+      if (!hedge.get()) {
+        release.await(5, TimeUnit.SECONDS); // the slow one
+      }
+      return StubResponse.ok(movie);
+    });
+
+    try (HedgingRemote hedging = HedgingRemote.builder()
+        .delegate(remote).delay(Duration.ofMillis(10)).budget(100).executor(threads).build()) {
+      Request request = Request.builder().path("/indexes/movies/documents/0").build();
+
+      // when
+      try (Response response = hedging.get(request)) {
+        // then
+        assertEquals(movie, GsonEncoder.create().decode(response.body(), Movie.class));
+      } finally {
+        release.countDown();
+      }
+
+      verify(remote, times(2)).get(any());
+      assertEquals(1, hedging.stats().hedged());
+      assertEquals(1, hedging.stats().won());
+    }
+  }
+
+  @DisplayName("verify the late response of a lost call is closed")
+  @Test void verifyLateResponseIsClosed() throws Exception {
+    // given
+    Movie movie = Movie.read().get(0);
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch closed = new CountDownLatch(1);
+    when(remote.get(any())).thenAnswer(i -> {
+      if (!hedge.get()) {
+        release.await(5, TimeUnit.SECONDS); // the slow one, which can't be interrupted
+        return new StubResponse(200, new Buffer()) {
+          @Override public void close() {
+            closed.countDown();
+          }
+        };
+      }
+      return StubResponse.ok(movie);
+    });
+
+    try (HedgingRemote hedging = HedgingRemote.builder()
+        .delegate(remote).delay(Duration.ofMillis(10)).budget(100).executor(threads).build()) {
+      Request request = Request.builder().path("/indexes/movies/documents/0").build();
+
+      // when
+      hedging.get(request).close();
+      release.countDown();
+
+      // then
+      assertTrue(closed.await(5, TimeUnit.SECONDS));
+    }
+  }
+
+  @DisplayName("verify a zero budget disables hedging")
+  @Test void verifyZeroBudgetDisablesHedging() throws Exception {
+    // given
+    Movie movie = Movie.read().get(0);
+    List<Thread> threads = new ArrayList<>();
+    when(remote.get(any())).thenAnswer(i -> {
+      threads.add(Thread.currentThread());
+      Thread.sleep(50);
+      return StubResponse.ok(movie);
+    });
+
+    try (HedgingRemote hedging = HedgingRemote.builder()
+        .delegate(remote).delay(Duration.ofMillis(1)).budget(0).build()) {
+      Request request = Request.builder().path("/indexes/movies/documents/0").build();
+
+      // when
+      hedging.get(request).close();
+
+      // then
+      verify(remote, times(1)).get(any());
+      assertEquals(Collections.singletonList(Thread.currentThread()), threads); // no thread hop
+      assertEquals(1, hedging.stats().reads());
+      assertEquals(0, hedging.stats().hedged());
+    }
+  }
+}
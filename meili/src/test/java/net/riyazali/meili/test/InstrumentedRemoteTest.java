@@ -0,0 +1,182 @@
+package net.riyazali.meili.test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import net.riyazali.meili.Encoder;
+import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.Histogram;
+import net.riyazali.meili.HistogramMetricsSink;
+import net.riyazali.meili.Index;
+import net.riyazali.meili.InstrumentedEncoder;
+import net.riyazali.meili.InstrumentedRemote;
+import net.riyazali.meili.Meili;
+import net.riyazali.meili.MetricsSink.Operation;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Body;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import net.riyazali.meili.SearchPage;
+import net.riyazali.meili.test.utils.Movie;
+import net.riyazali.meili.test.utils.StubResponse;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InstrumentedRemoteTest {
+
+  // mock for external services
+  @Mock Remote remote;
+
+  @DisplayName("verify calls are classified into logical operations")
+  @Test void verifyOperationClassification() {
+    assertEquals(Operation.SEARCH, Operation.of("GET", "/indexes/movies/search"));
+    assertEquals(Operation.GET, Operation.of("GET", "/indexes/movies/documents/42"));
+    assertEquals(Operation.ALL, Operation.of("GET", "/indexes/movies/documents"));
+    assertEquals(Operation.INSERT, Operation.of("POST", "/indexes/movies/documents"));
+    assertEquals(Operation.UPDATE, Operation.of("PUT", "/indexes/movies/documents"));
+    assertEquals(Operation.DELETE, Operation.of("POST", "/indexes/movies/documents/delete-batch"));
+    assertEquals(Operation.DELETE, Operation.of("DELETE", "/indexes/movies/documents"));
+    assertEquals(Operation.UPDATE_POLL, Operation.of("GET", "/indexes/movies/updates/1"));
+    assertEquals(Operation.OTHER, Operation.of("GET", "/indexes/movies"));
+    assertEquals(Operation.OTHER, Operation.of("GET", "/health"));
+  }
+
+  @DisplayName("verify histogram percentiles are within the expected error")
+  @Test void verifyHistogramPercentiles() {
+    Histogram histogram = new Histogram();
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    assertEquals(100_000, histogram.count());
+    assertEquals(100_000_000, histogram.max());
+    assertTrue(Math.abs(histogram.percentile(50) - 50_000_000) <= 50_000_000 * 0.04);
+    assertTrue(Math.abs(histogram.percentile(99) - 99_000_000) <= 99_000_000 * 0.04);
+    assertEquals(100_000_000, histogram.percentile(100));
+  }
+
+  @DisplayName("verify instrumented remote and encoder report to the sink")
+  @Test void verifyMetricsAreReported() throws Exception {
+    // given
+    List<Movie> movies = Movie.read();
+    when(remote.get(any())).thenAnswer(i -> {
+      Request request = i.getArgument(0);
+      return request.path().contains("updates") ?
+          StubResponse.ok(Movie.processedUpdate()) :
+          StubResponse.ok(new SearchPage.Response<>(movies));
+    });
+    when(remote.post(any())).thenAnswer(i -> {
+      i.<Request>getArgument(0).body().writeTo(new Buffer());
+      return StubResponse.accepted(Movie.enqueuedUpdate());
+    });
+
+    HistogramMetricsSink sink = HistogramMetricsSink.create();
+    Index<Movie> index = new Meili(InstrumentedRemote.create(remote, sink),
+        InstrumentedEncoder.create(GsonEncoder.create(), sink)).index(Movie.class, false);
+    index.metrics(sink);
+
+    // when
+    index.insert(movies.get(0));
+    index.search("american");
+
+    // then
+    assertEquals(1, sink.latency(Operation.INSERT).count());
+    assertTrue(sink.requestBytes(Operation.INSERT).max() > 0);
+    assertEquals(Collections.singletonMap(202, 1L), sink.statuses(Operation.INSERT));
+    assertEquals(1, sink.latency(Operation.UPDATE_POLL).count());
+    assertEquals(1, sink.latency(Operation.SEARCH).count());
+    assertTrue(sink.responseBytes(Operation.SEARCH).max() > 0);
+    assertEquals(1, sink.clientSearchTime().count());
+    assertTrue(sink.encodeTime().count() > 0);
+    assertTrue(sink.decodeTime().count() > 0);
+  }
+
+  @DisplayName("verify instrumented remote counts response bytes off the response's own buffer")
+  @Test void verifyResponseIsNotRebuffered() throws Exception {
+    // given
+    BufferedSource body = Okio.buffer(Okio.source(
+        new ByteArrayInputStream("hello world\n[1,2]".getBytes(StandardCharsets.UTF_8))));
+    when(remote.get(any())).thenReturn(new StubResponse(200, body));
+    HistogramMetricsSink sink = HistogramMetricsSink.create();
+    Remote instrumented = InstrumentedRemote.create(remote, sink);
+
+    // when
+    try (Response response = instrumented.get(Request.builder().path("/health").build())) {
+      assertNotNull(response.body());
+      BufferedSource source = (BufferedSource) response.body();
+      assertSame(body.getBuffer(), source.getBuffer());
+
+      assertEquals("hello world", source.readUtf8Line());
+      source.require(2);
+      source.getBuffer().skip(2); // consumed directly off the buffer
+      assertEquals(',', source.readByte());
+    }
+
+    // then
+    assertEquals(15, sink.responseBytes(Operation.OTHER).max());
+  }
+
+  @DisplayName("verify instrumented remote keeps a body's one-shot flag")
+  @Test void verifyOneShotBodyIsForwarded() throws Exception {
+    // given
+    List<Boolean> oneShot = new ArrayList<>();
+    when(remote.post(any())).thenAnswer(i -> {
+      oneShot.add(i.<Request>getArgument(0).body().isOneShot());
+      return StubResponse.accepted(Movie.enqueuedUpdate());
+    });
+    Remote instrumented = InstrumentedRemote.create(remote, HistogramMetricsSink.create());
+
+    // when
+    instrumented.post(Request.builder().path("/indexes/movies/documents")
+        .body(new Buffer().writeUtf8("[]")).build()).close();
+    instrumented.post(Request.builder().path("/indexes/movies/documents")
+        .body(Body.of(new Buffer().writeUtf8("[]"))).build()).close();
+
+    // then
+    assertEquals(Arrays.asList(true, false), oneShot);
+  }
+
+  @DisplayName("verify instrumented encoder forwards typed decoders and times them")
+  @Test void verifyTypedDecoderIsForwarded() throws Exception {
+    // given
+    Movie movie = Movie.read().get(0);
+    Encoder delegate = mock(Encoder.class);
+    when(delegate.<Movie>decoder(Movie.class)).thenReturn(json -> movie);
+    HistogramMetricsSink sink = HistogramMetricsSink.create();
+
+    // when
+    Encoder.TypeDecoder<Movie> decoder =
+        InstrumentedEncoder.create(delegate, sink).decoder(Movie.class);
+    decoder.decode(new Buffer());
+    decoder.decode(new Buffer());
+
+    // then
+    verify(delegate, times(1)).decoder(Movie.class);
+    verify(delegate, never()).decode(any(), any());
+    assertEquals(2, sink.decodeTime().count());
+  }
+}
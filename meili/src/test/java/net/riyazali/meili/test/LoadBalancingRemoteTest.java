@@ -0,0 +1,111 @@
+package net.riyazali.meili.test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import net.riyazali.meili.LoadBalancingRemote;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.test.utils.Movie;
+import net.riyazali.meili.test.utils.StubResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LoadBalancingRemoteTest {
+
+  // mocks for the nodes
+  @Mock Remote primary;
+  @Mock Remote replica;
+
+  final Request search = Request.builder().path("/indexes/movies/search").build();
+
+  @DisplayName("verify writes are sent to the primary")
+  @Test void verifyWritesGoToPrimary() throws Exception {
+    // given
+    when(primary.post(any())).thenAnswer(i -> StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    try (LoadBalancingRemote remote = LoadBalancingRemote.builder()
+        .primary(primary).replica(replica).healthCheckInterval(Duration.ZERO).build()) {
+      // when
+      for (int i = 0; i < 10; i++) {
+        remote.post(search).close();
+      }
+
+      // then
+      verify(primary, times(10)).post(any());
+      verify(replica, never()).post(any());
+      assertEquals(10, remote.stats().get(0).requests());
+    }
+  }
+
+  @DisplayName("verify reads skip nodes that fail their health check")
+  @Test void verifyUnhealthyNodesAreEjected() throws Exception {
+    // given
+    when(primary.get(any())).thenAnswer(i -> StubResponse.ok(Movie.processedUpdate()));
+    when(replica.get(any())).thenAnswer(i -> {
+      if ("/health".equals(i.<Request>getArgument(0).path())) {
+        throw new IOException("connection refused");
+      }
+      return StubResponse.ok(Movie.processedUpdate());
+    });
+
+    try (LoadBalancingRemote remote = LoadBalancingRemote.builder()
+        .primary(primary).replica(replica).healthCheckInterval(Duration.ofMillis(10)).build()) {
+      while (remote.stats().get(1).healthy()) {
+        Thread.sleep(1);
+      }
+
+      // when
+      for (int i = 0; i < 10; i++) {
+        remote.get(search).close();
+      }
+
+      // then
+      assertFalse(remote.stats().get(1).healthy());
+      verify(replica, never()).get(argThat(r -> search.path().equals(r.path())));
+      verify(primary, times(10)).get(argThat(r -> search.path().equals(r.path())));
+    }
+  }
+
+  @DisplayName("verify reads skip nodes whose health check hangs")
+  @Test void verifyHangingNodesAreEjected() throws Exception {
+    // given
+    CountDownLatch release = new CountDownLatch(1);
+    when(primary.get(any())).thenAnswer(i -> StubResponse.ok(Movie.processedUpdate()));
+    when(replica.get(any())).thenAnswer(i -> {
+      release.await(); // the node accepts the connection but never answers
+      return StubResponse.ok(Movie.processedUpdate());
+    });
+
+    try (LoadBalancingRemote remote = LoadBalancingRemote.builder()
+        .primary(primary).replica(replica).healthCheckInterval(Duration.ofMillis(10))
+        .healthCheckTimeout(Duration.ofMillis(50)).build()) {
+      // when
+      while (remote.stats().get(1).healthy()) {
+        Thread.sleep(1);
+      }
+
+      // then
+      assertFalse(remote.stats().get(1).healthy());
+      assertEquals(1, remote.stats().get(1).ejections());
+    } finally {
+      release.countDown();
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package net.riyazali.meili.test;
 
 import net.riyazali.meili.Encoder;
+import net.riyazali.meili.Index;
 import net.riyazali.meili.Meili;
 import net.riyazali.meili.Remote;
 import net.riyazali.meili.test.utils.Movie;
@@ -11,7 +12,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,4 +39,20 @@ class MeiliClientTest {
     verify(remote, times(1)).get(any());
     verify(remote, times(1)).post(any());
   }
+
+  @DisplayName("verify that index is only checked for on first use")
+  @Test void verifyIndexIsCached() throws Exception {
+    // given
+    when(remote.get(any())).thenReturn(StubResponse.ok(Movie.index()));
+    Meili client = new Meili(remote, encoder);
+
+    // when
+    Index<Movie> first = client.index(Movie.class);
+    Index<Movie> second = client.index(Movie.class);
+
+    // then
+    assertSame(first, second);
+    verify(remote, times(1)).get(any());
+    verify(remote, never()).post(any());
+  }
 }
@@ -1,19 +1,48 @@
 package net.riyazali.meili.test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import net.riyazali.meili.BulkConfig;
+import net.riyazali.meili.BulkIndexer;
+import net.riyazali.meili.Cursor;
 import net.riyazali.meili.GsonEncoder;
+import net.riyazali.meili.ImportConfig;
 import net.riyazali.meili.Index;
 import net.riyazali.meili.Meili;
+import net.riyazali.meili.PageConfig;
 import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.SearchCache;
+import net.riyazali.meili.SearchConfig;
 import net.riyazali.meili.SearchPage;
 import net.riyazali.meili.Update;
+import net.riyazali.meili.UpdateTracker;
 import net.riyazali.meili.test.utils.Movie;
 import net.riyazali.meili.test.utils.StubResponse;
+import okio.Buffer;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
@@ -21,9 +50,12 @@ import org.mockito.quality.Strictness;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,6 +65,9 @@ class MeiliIndexTest {
   // mock for external services
   @Mock Remote remote;
 
+  // executor that runs tasks on the calling thread
+  final Executor direct = Runnable::run;
+
   @BeforeEach void setup() throws Exception {
     when(remote.get(any())).thenReturn(StubResponse.ok(Movie.processedUpdate()));
   }
@@ -72,6 +107,72 @@ class MeiliIndexTest {
     }
   }
 
+  @DisplayName("verify index cursor iterates over all the pages")
+  @Test void verifyDocumentCursor() throws Exception {
+    // given
+    List<Movie> movies = Movie.read().subList(0, 3);
+    when(remote.get(any())).thenReturn(
+        StubResponse.ok(movies.subList(0, 2)),
+        StubResponse.ok(movies.subList(2, 3)));
+
+    // when
+    List<Movie> r = new ArrayList<>();
+    try (Cursor<Movie> cursor = (new Meili(remote, GsonEncoder.create()))
+        .index(Movie.class, false).cursor(PageConfig.builder().limit(2).build(), 1, direct)) {
+      cursor.forEach(r::add);
+    }
+
+    // then
+    assertEquals(movies, r);
+    verify(remote, times(2)).get(any());
+  }
+
+  @DisplayName("verify index cursor requests the next page before the current one is consumed")
+  @Test void verifyDocumentCursorPrefetches() throws Exception {
+    // given
+    List<Movie> movies = Movie.read().subList(0, 4);
+    when(remote.get(any())).thenReturn(
+        StubResponse.ok(movies.subList(0, 2)),
+        StubResponse.ok(movies.subList(2, 4)),
+        StubResponse.ok(Collections.emptyList()));
+
+    // when
+    try (Cursor<Movie> cursor = (new Meili(remote, GsonEncoder.create()))
+        .index(Movie.class, false).cursor(PageConfig.builder().limit(2).build(), 1, direct)) {
+      Iterator<Movie> iterator = cursor.iterator();
+
+      // then
+      assertEquals(movies.get(0), iterator.next());
+      verify(remote, times(2)).get(any()); // second page is in flight while the first is consumed
+      assertEquals(movies.get(1), iterator.next());
+      assertEquals(movies.get(2), iterator.next());
+      verify(remote, times(3)).get(any());
+    }
+  }
+
+  @DisplayName("verify parallel stream scans disjoint ranges of the index")
+  @Test void verifyDocumentParallelStream() throws Exception {
+    // given
+    List<Movie> movies = Movie.read().subList(0, 5);
+    when(remote.get(any())).thenAnswer(i -> {
+      Request request = i.getArgument(0);
+      if (request.path().endsWith("/stats")) {
+        return StubResponse.ok(Collections.singletonMap("numberOfDocuments", movies.size()));
+      }
+      int offset = Integer.parseInt(request.query().get("offset"));
+      int limit = Integer.parseInt(request.query().get("limit"));
+      return StubResponse.ok(movies.subList(offset, Math.min(offset + limit, movies.size())));
+    });
+
+    // when
+    List<Movie> r = (new Meili(remote, GsonEncoder.create())).index(Movie.class, false)
+        .parallelStream(PageConfig.builder().limit(2).build()).collect(Collectors.toList());
+
+    // then
+    assertEquals(movies, r);
+    verify(remote, times(4)).get(any()); // stats + 3 pages
+  }
+
   @DisplayName("verify index can perform search on documents")
   @Test void verifyDocumentSearch() throws Exception {
     // given
@@ -90,6 +191,96 @@ class MeiliIndexTest {
     }
   }
 
+  @DisplayName("verify search cache serves repeated searches until invalidated")
+  @Test void verifyDocumentSearchCache() throws Exception {
+    // given
+    List<Movie> movies = Movie.read();
+    when(remote.get(any())).thenAnswer(i -> {
+      Request request = i.getArgument(0);
+      return request.path().contains("updates") ?
+          StubResponse.ok(Movie.processedUpdate()) :
+          StubResponse.ok(new SearchPage.Response<>(movies));
+    });
+    when(remote.post(any())).thenReturn(StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    SearchCache cache = SearchCache.builder().build();
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class, false);
+    index.cache(cache);
+
+    // when
+    index.search("american");
+    index.search("american");
+
+    // then
+    assertEquals(1, cache.stats().hits());
+    assertEquals(1, cache.stats().misses());
+    verify(remote, times(1)).get(any());
+
+    // when
+    index.insert(movies.get(0)); // update gets processed and invalidates the cache
+    index.search("american");
+
+    // then
+    assertEquals(2, cache.stats().misses());
+    assertEquals(1, cache.stats().entries());
+  }
+
+  @DisplayName("verify index can stream search hits one at a time")
+  @Test void verifyDocumentSearchEach() throws Exception {
+    // given
+    List<Movie> movies = Movie.read();
+    when(remote.get(any())).thenReturn(StubResponse.ok(new SearchPage.Response<>(movies)));
+
+    // when
+    List<Movie> hits = new ArrayList<>();
+    (new Meili(remote, GsonEncoder.create())).index(Movie.class)
+        .searchEach(SearchConfig.builder().query("american").build(), hits::add);
+
+    // then
+    assertEquals(movies, hits);
+  }
+
+  @DisplayName("verify index can decode search hits lazily")
+  @Test void verifyDocumentSearchLazy() throws Exception {
+    // given
+    List<Movie> movies = Movie.read();
+    when(remote.get(any())).thenReturn(StubResponse.ok(new SearchPage.Response<>(movies)));
+
+    // when
+    SearchPage<Movie> search = (new Meili(remote, GsonEncoder.create())).index(Movie.class)
+        .search(SearchConfig.builder().query("american").lazy(true).build());
+
+    // then
+    assertEquals(movies.size(), search.hits().size());
+    assertEquals("287947", search.hits().get(0).id());
+    assertEquals(movies.get(1), search.results().get(1));
+    assertEquals(movies, new ArrayList<>(search.results()));
+  }
+
+  @DisplayName("verify index can pass search results through without decoding them")
+  @Test void verifyDocumentSearchRaw() throws Exception {
+    // given
+    String json = "{\"hits\":[{\"id\":\"287947\"}],\"processingTimeMs\":1}";
+    when(remote.get(any())).thenAnswer(i -> new StubResponse(200, new Buffer().writeUtf8(json)));
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class);
+
+    // when
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    int status = index.searchRaw(SearchConfig.builder().query("american").build(), out);
+
+    // then
+    assertEquals(200, status);
+    assertEquals(json, new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+    // when
+    when(remote.get(any())).thenReturn(StubResponse.notFound());
+    Buffer sink = new Buffer();
+
+    // then
+    assertEquals(404, index.getRaw("0", sink));
+    assertEquals(0, sink.size());
+  }
+
   @DisplayName("verify index can insert documents")
   @Test void verifyDocumentInsert() throws Exception {
     // given
@@ -118,6 +309,99 @@ class MeiliIndexTest {
     assertTrue(u.done());
   }
 
+  @DisplayName("verify bulk indexer sends documents in batches")
+  @Test void verifyBulkIndexer() throws Exception {
+    // given
+    when(remote.get(any())).thenAnswer(i -> StubResponse.ok(Movie.processedUpdate()));
+    when(remote.post(any())).thenAnswer(i -> StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    BulkConfig config = BulkConfig.builder()
+        .maxDocuments(2).linger(Duration.ofMinutes(1)).executor(direct).build();
+
+    // when
+    BulkIndexer<Movie> indexer = (new Meili(remote, GsonEncoder.create()))
+        .index(Movie.class, false).bulkIndexer(config);
+    try {
+      for (Movie movie : Movie.read().subList(0, 3)) {
+        indexer.add(movie);
+      }
+    } finally {
+      indexer.close();
+    }
+
+    // then
+    assertEquals(3, indexer.stats().documents());
+    assertEquals(2, indexer.stats().batches());
+    assertEquals(0, indexer.stats().failures());
+    verify(remote, times(2)).post(any());
+  }
+
+  @DisplayName("verify update tracker waits for updates to complete")
+  @Test void verifyUpdateTracker() throws Exception {
+    // given
+    when(remote.post(any())).thenReturn(StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class, false);
+    index.refreshOnWrite(false);
+
+    // when
+    Update u = index.insert(Movie.read().get(0));
+    assertEquals(Update.Status.ENQUEUED, u.status()); // no refresh on write
+
+    when(remote.get(any())).thenAnswer(
+        i -> StubResponse.ok(Collections.singletonList(Movie.processedUpdate())));
+    try (UpdateTracker tracker = UpdateTracker.builder()
+        .minInterval(Duration.ofMillis(1)).executor(direct).build()) {
+      tracker.track(u).get(5, TimeUnit.SECONDS);
+    }
+
+    // then
+    assertEquals(Update.Status.PROCESSED, u.status());
+    assertTrue(u.done());
+  }
+
+  @DisplayName("verify update tracker survives duplicate updates and rejected completions")
+  @Test void verifyUpdateTrackerFailures() throws Exception {
+    // given
+    when(remote.post(any())).thenAnswer(i -> StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class, false);
+    index.refreshOnWrite(false);
+
+    // both writes get the same update id
+    Update first = index.insert(Movie.read().get(0));
+    Update second = index.insert(Movie.read().get(0));
+
+    // the first completion is rejected, the following ones are run inline
+    AtomicInteger executed = new AtomicInteger();
+    Executor rejecting = command -> {
+      if (executed.getAndIncrement() == 0) {
+        throw new RejectedExecutionException();
+      }
+      command.run();
+    };
+
+    when(remote.get(any())).thenAnswer(
+        i -> StubResponse.ok(Collections.singletonList(Movie.processedUpdate())));
+    try (UpdateTracker tracker = UpdateTracker.builder()
+        .minInterval(Duration.ofMillis(1)).executor(rejecting).build()) {
+      // when
+      CompletableFuture<Update> a = tracker.track(first);
+      CompletableFuture<Update> b = tracker.track(second);
+
+      // then
+      ExecutionException e = assertThrows(ExecutionException.class,
+          () -> a.get(5, TimeUnit.SECONDS));
+      assertTrue(e.getCause() instanceof RejectedExecutionException);
+      assertThrows(ExecutionException.class, () -> b.get(5, TimeUnit.SECONDS)); // shares it's fate
+
+      // the poll loop keeps running
+      Update third = index.insert(Movie.read().get(0));
+      assertSame(third, tracker.track(third).get(5, TimeUnit.SECONDS));
+      assertTrue(third.done());
+    }
+  }
+
   @DisplayName("verify index can delete documents")
   @Test void verifyDocumentDelete() throws Exception {
     // given
@@ -133,6 +417,77 @@ class MeiliIndexTest {
     assertTrue(u.done());
   }
 
+  @DisplayName("verify index imports pre-serialized documents without decoding them")
+  @Test void verifyDocumentImport(@TempDir Path dir) throws Exception {
+    // given
+    // each request is refreshed, so every read needs a fresh response
+    when(remote.get(any())).thenAnswer(i -> StubResponse.ok(Movie.processedUpdate()));
+    List<String> bodies = new ArrayList<>();
+    List<Boolean> oneShot = new ArrayList<>();
+    when(remote.post(any())).thenAnswer(invocation -> {
+      Buffer buffer = new Buffer();
+      invocation.<Request>getArgument(0).body().writeTo(buffer);
+      bodies.add(buffer.readUtf8());
+      oneShot.add(invocation.<Request>getArgument(0).body().isOneShot());
+      return StubResponse.accepted(Movie.enqueuedUpdate());
+    });
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class);
+
+    Path json = dir.resolve("movies.json");
+    Files.write(json, "[{\"id\":\"1\"},{\"id\":\"2\"}]".getBytes(StandardCharsets.UTF_8));
+    byte[] ndjson = "{\"id\":\"1\"}\r\n{\"id\":\"2\"}\n\n{\"id\":\"3\"}"
+        .getBytes(StandardCharsets.UTF_8);
+
+    // when
+    List<Update> file = index.importFile(json, ImportConfig.getDefault());
+    List<Update> channel = index.importChannel(
+        Channels.newChannel(new ByteArrayInputStream(ndjson)),
+        ImportConfig.builder().format(ImportConfig.Format.NDJSON).maxBytes(24).build());
+    List<Update> stream = index.importChannel(
+        Channels.newChannel(new ByteArrayInputStream(Files.readAllBytes(json))),
+        ImportConfig.getDefault());
+
+    // then
+    assertEquals(1, file.size());
+    assertEquals(2, channel.size());
+    assertEquals(1, stream.size());
+    assertEquals(Arrays.asList("[{\"id\":\"1\"},{\"id\":\"2\"}]",
+        "[{\"id\":\"1\"},{\"id\":\"2\"}]", "[{\"id\":\"3\"}]",
+        "[{\"id\":\"1\"},{\"id\":\"2\"}]"), bodies);
+    assertEquals(Arrays.asList(false, false, false, true), oneShot);
+  }
+
+  @DisplayName("verify index streams ids of documents to delete")
+  @Test void verifyDocumentDeleteByIds() throws Exception {
+    // given
+    // each batch is refreshed, so every read needs a fresh response
+    when(remote.get(any())).thenAnswer(i -> StubResponse.ok(Movie.processedUpdate()));
+    List<String> bodies = new ArrayList<>();
+    List<Boolean> oneShot = new ArrayList<>();
+    when(remote.post(any())).thenAnswer(invocation -> {
+      Buffer buffer = new Buffer();
+      invocation.<Request>getArgument(0).body().writeTo(buffer);
+      bodies.add(buffer.readUtf8());
+      oneShot.add(invocation.<Request>getArgument(0).body().isOneShot());
+      return StubResponse.accepted(Movie.enqueuedUpdate());
+    });
+    Index<Movie> index = (new Meili(remote, GsonEncoder.create())).index(Movie.class);
+
+    // when
+    index.delete(Movie.read().get(0), Movie.read().get(1));
+    index.deleteByIds(Arrays.asList("1", "a\"b"));
+    index.deleteByIds(Arrays.<Object>asList(1L, "2").iterator());
+    Update u = index.deleteByIds(LongStream.rangeClosed(1, 3));
+
+    // then
+    assertEquals(Update.Status.PROCESSED, u.status());
+    assertEquals("[\"287947\",\"299537\"]", bodies.get(0));
+    assertEquals("[\"1\",\"a\\\"b\"]", bodies.get(1));
+    assertEquals("[1,\"2\"]", bodies.get(2));
+    assertEquals("[1,2,3]", bodies.get(3));
+    assertEquals(Arrays.asList(false, false, true, true), oneShot);
+  }
+
   @DisplayName("verify index can clear all documents")
   @Test void verifyDocumentClear() throws Exception {
     // given
@@ -146,4 +501,38 @@ class MeiliIndexTest {
     assertEquals(Update.Status.PROCESSED, u.status()); // will be processed because of setup step
     assertTrue(u.done());
   }
+
+  @DisplayName("verify index can asynchronously perform search on documents")
+  @Test void verifyDocumentSearchAsync() throws Exception {
+    // given
+    List<Movie> movies = Movie.read();
+    when(remote.get(any())).thenReturn(StubResponse.ok(new SearchPage.Response<>(movies)));
+
+    // when
+    SearchPage<Movie> search = (new Meili(remote, GsonEncoder.create()))
+        .indexAsync(Movie.class, true, direct)
+        .thenCompose(index -> index.searchAsync(
+            SearchConfig.builder().query("american").build(), direct))
+        .get();
+
+    // then
+    Iterator<Movie> it = search.iterator();
+    for (Movie movie : movies) {
+      assertEquals(movie, it.next());
+    }
+  }
+
+  @DisplayName("verify index can asynchronously insert documents")
+  @Test void verifyDocumentInsertAsync() throws Exception {
+    // given
+    when(remote.post(any())).thenReturn(StubResponse.accepted(Movie.enqueuedUpdate()));
+
+    // when
+    Update u = (new Meili(remote, GsonEncoder.create()))
+        .index(Movie.class).insertAsync(direct, Movie.read().get(0)).get();
+
+    // then
+    assertEquals(Update.Status.PROCESSED, u.status()); // will be processed because of setup step
+    assertTrue(u.done());
+  }
 }
@@ -0,0 +1,103 @@
+package net.riyazali.meili.test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import net.riyazali.meili.PageConfig;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.SearchConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryTest {
+
+  @DisplayName("verify config map keeps the parameters in order and behaves like a hash map")
+  @Test void verifyQueryBehavesLikeMap() {
+    // given
+    Map<String, String> query = PageConfig.builder().limit(10).offset(20).build().map();
+
+    // when
+    query.put("attributes", "id");
+    query.put("limit", "30");
+
+    // then
+    assertEquals(Arrays.asList("limit", "offset", "attributes"), new ArrayList<>(query.keySet()));
+    assertEquals("30", query.get("limit"));
+    assertNull(query.get("q"));
+    assertTrue(query.containsKey("offset"));
+
+    Map<String, String> expected = new HashMap<>();
+    expected.put("limit", "30");
+    expected.put("offset", "20");
+    expected.put("attributes", "id");
+    assertEquals(expected, query);
+    assertEquals(query, expected);
+    assertEquals(expected.hashCode(), query.hashCode());
+  }
+
+  @DisplayName("verify parameters can be removed from or replaced in a config map")
+  @Test void verifyQueryRemove() {
+    // given
+    Map<String, String> query = SearchConfig.builder().query("american").build().map();
+    int size = query.size();
+
+    // when
+    assertEquals("0", query.remove("offset"));
+    assertNull(query.remove("offset"));
+    Iterator<Map.Entry<String, String>> entries = query.entrySet().iterator();
+    assertThrows(IllegalStateException.class, entries::remove);
+    entries.next();
+    entries.remove(); // limit
+
+    // then
+    assertEquals(size - 2, query.size());
+    assertFalse(query.containsKey("limit"));
+    assertEquals("american", query.get("q"));
+    assertEquals("q", query.keySet().iterator().next());
+
+    Map.Entry<String, String> first = query.entrySet().iterator().next();
+    assertEquals("american", first.setValue("british"));
+    assertEquals("british", query.get("q"));
+    query.replaceAll((name, value) -> value.toUpperCase());
+    assertEquals("BRITISH", query.get("q"));
+
+    query.clear();
+    assertTrue(query.isEmpty());
+    query.put("q", "fast");
+    assertEquals("fast", query.get("q"));
+  }
+
+  @DisplayName("verify request adopts a config map as it's query and copies any other map")
+  @Test void verifyRequestQuery() {
+    // given
+    Map<String, String> query = PageConfig.builder().build().map();
+    Map<String, String> other = new HashMap<>(query);
+
+    // when
+    Request adopted = Request.builder().path("/indexes/movies/documents").query(query).build();
+    Request copied = Request.builder().path("/indexes/movies/documents").query(other)
+        .query("attributes", "id").build();
+
+    // then
+    assertSame(query, adopted.query());
+    assertEquals(3, copied.query().size());
+    assertEquals(2, other.size());
+
+    List<String> names = new ArrayList<>(copied.query().keySet());
+    assertEquals("attributes", names.get(2));
+
+    Request cleared = adopted.toBuilder().clearQuery().query("q", "american").build();
+    assertEquals(1, cleared.query().size());
+    assertEquals(2, query.size()); // the adopted map is left alone
+  }
+}
@@ -0,0 +1,110 @@
+package net.riyazali.meili.test;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import net.riyazali.meili.Remote;
+import net.riyazali.meili.Remote.Body;
+import net.riyazali.meili.Remote.Request;
+import net.riyazali.meili.Remote.Response;
+import net.riyazali.meili.RetryingRemote;
+import net.riyazali.meili.test.utils.Movie;
+import net.riyazali.meili.test.utils.StubResponse;
+import okio.Buffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RetryingRemoteTest {
+
+  // mock for external services
+  @Mock Remote remote;
+
+  @DisplayName("verify a failed call is retried with the same body")
+  @Test void verifyFailedCallIsRetried() throws Exception {
+    // given
+    List<String> bodies = new ArrayList<>();
+    when(remote.post(any())).thenAnswer(i -> {
+      Buffer body = new Buffer();
+      i.<Request>getArgument(0).body().writeTo(body);
+      bodies.add(body.readUtf8());
+      if (bodies.size() == 1) {
+        throw new ConnectException("connection refused");
+      }
+      return StubResponse.accepted(Movie.enqueuedUpdate());
+    });
+
+    try (RetryingRemote retrying = RetryingRemote.builder()
+        .delegate(remote).backoff(Duration.ofMillis(1)).build()) {
+      // body is backed by a one-shot source
+      Request request = Request.builder().path("/indexes/movies/documents")
+          .body(new Buffer().writeUtf8("[{\"id\":\"287947\"}]")).build();
+
+      // when
+      try (Response response = retrying.post(request)) {
+        // then
+        assertEquals(202, response.status());
+      }
+
+      verify(remote, times(2)).post(any());
+      assertEquals(bodies.get(0), bodies.get(1));
+      assertEquals(1, retrying.stats().retries());
+    }
+  }
+
+  @DisplayName("verify a post that might have reached the server is only retried if allowed")
+  @Test void verifySentPostIsNotRetried() throws Exception {
+    // given
+    when(remote.post(any())).thenThrow(new SocketTimeoutException("read timed out"));
+    Request request = Request.builder().path("/indexes/movies/documents")
+        .body(Body.of(new Buffer().writeUtf8("[{\"id\":\"287947\"}]"))).build();
+
+    // when
+    try (RetryingRemote retrying = RetryingRemote.builder()
+        .delegate(remote).backoff(Duration.ofMillis(1)).build()) {
+      assertThrows(SocketTimeoutException.class, () -> retrying.post(request));
+      assertEquals(0, retrying.stats().retries());
+    }
+    try (RetryingRemote retrying = RetryingRemote.builder()
+        .delegate(remote).backoff(Duration.ofMillis(1)).idempotentOnly(false).build()) {
+      assertThrows(SocketTimeoutException.class, () -> retrying.post(request));
+      assertEquals(2, retrying.stats().retries());
+    }
+
+    // then
+    verify(remote, times(4)).post(any());
+  }
+
+  @DisplayName("verify the circuit opens after consecutive failures")
+  @Test void verifyCircuitOpens() throws Exception {
+    // given
+    when(remote.get(any())).thenAnswer(i -> new StubResponse(503, null));
+
+    try (RetryingRemote retrying = RetryingRemote.builder()
+        .delegate(remote).maxAttempts(1).failureThreshold(2).build()) {
+      Request request = Request.builder().path("/indexes/movies/search").build();
+
+      // when
+      retrying.get(request).close();
+      retrying.get(request).close();
+
+      // then
+      assertThrows(RetryingRemote.CircuitOpenException.class, () -> retrying.get(request));
+      assertTrue(retrying.stats().open());
+      verify(remote, times(2)).get(any());
+    }
+  }
+}